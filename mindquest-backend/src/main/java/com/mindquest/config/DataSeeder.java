@@ -39,7 +39,6 @@ public class DataSeeder implements CommandLineRunner {
             admin.setPassword("$2a$10$testhash"); // bcrypt hash for 'password'
             admin.setLevel(10);
             admin.setPoints(5000L);
-            userRepository.save(admin);
 
             User user1 = new User();
             user1.setName("Alice");
@@ -47,7 +46,6 @@ public class DataSeeder implements CommandLineRunner {
             user1.setPassword("$2a$10$testhash");
             user1.setLevel(3);
             user1.setPoints(1200L);
-            userRepository.save(user1);
 
             User user2 = new User();
             user2.setName("Bob");
@@ -55,7 +53,7 @@ public class DataSeeder implements CommandLineRunner {
             user2.setPassword("$2a$10$testhash");
             user2.setLevel(5);
             user2.setPoints(2500L);
-            userRepository.save(user2);
+            userRepository.saveAll(Arrays.asList(admin, user1, user2));
         }
 
         // Seed Categories & Questions
@@ -0,0 +1,36 @@
+package com.mindquest.config;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collections;
+
+@Configuration
+public class GoogleAuthConfig {
+
+    @Value("${spring.security.oauth2.client.registration.google.client-id}")
+    private String googleClientId;
+
+    // Point this at a local stub to run logins without reaching Google
+    @Value("${app.google.certs-url:https://www.googleapis.com/oauth2/v1/certs}")
+    private String certsUrl;
+
+    @Bean
+    public GooglePublicKeysManager googlePublicKeysManager() {
+        return new GooglePublicKeysManager.Builder(new NetHttpTransport(), GsonFactory.getDefaultInstance())
+                .setPublicCertsEncodedUrl(certsUrl)
+                .build();
+    }
+
+    @Bean
+    public GoogleIdTokenVerifier googleIdTokenVerifier(GooglePublicKeysManager googlePublicKeysManager) {
+        return new GoogleIdTokenVerifier.Builder(googlePublicKeysManager)
+                .setAudience(Collections.singletonList(googleClientId))
+                .build();
+    }
+}
@@ -1,8 +1,10 @@
 package com.mindquest.config;
 
+import com.mindquest.security.BoundedPasswordEncoder;
 import com.mindquest.security.JwtAuthenticationEntryPoint;
 import com.mindquest.security.JwtAuthenticationFilter;
 import com.mindquest.service.CustomUserDetailsService;
+import com.mindquest.service.QuizSessionTokens;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -40,6 +42,15 @@ public class SecurityConfig {
     @Value("${app.cors-allowed-origins}")
     private String corsAllowedOrigins;
 
+    @Value("${app.password-hashing.threads:0}")
+    private int passwordHashingThreads;
+
+    @Value("${app.password-hashing.queue-capacity:64}")
+    private int passwordHashingQueueCapacity;
+
+    @Value("${app.password-hashing.timeout-ms:5000}")
+    private long passwordHashingTimeoutMs;
+
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
         return new JwtAuthenticationFilter();
@@ -47,7 +58,9 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+        int threads = passwordHashingThreads > 0 ? passwordHashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(12),
+                threads, passwordHashingQueueCapacity, passwordHashingTimeoutMs);
     }
 
     @Bean
@@ -76,11 +89,13 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/community/stats").permitAll()
                 .requestMatchers(HttpMethod.GET, "/community/categories").permitAll()
                 .requestMatchers(HttpMethod.GET, "/community/experts").permitAll()
-                .requestMatchers("/actuator/**").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                 
                 // Admin endpoints
                 .requestMatchers("/admin/**").hasRole("ADMIN")
+                // Metrics include Hibernate statistics and cache internals, so only admins may read them
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 
                 // Authenticated endpoints
                 .anyRequest().authenticated()
@@ -98,6 +113,7 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(Arrays.asList(corsAllowedOrigins.split(",")));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList("ETag", QuizSessionTokens.HEADER));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
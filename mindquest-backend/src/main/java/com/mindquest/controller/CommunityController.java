@@ -2,8 +2,8 @@ package com.mindquest.controller;
 
 import com.mindquest.dto.request.CreatePostRequest;
 import com.mindquest.dto.response.*;
-import com.mindquest.entity.User;
 import com.mindquest.service.CommunityService;
+import com.mindquest.service.ResponseCache;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -20,24 +20,36 @@ public class CommunityController {
     @Autowired
     private CommunityService communityService;
 
+    @Autowired
+    private ResponseCache responseCache;
+
     @GetMapping("/stats")
     public ResponseEntity<ApiResponse<CommunityStatsResponse>> getCommunityStats() {
-        CommunityStatsResponse stats = communityService.getCommunityStats();
+        CommunityStatsResponse stats = responseCache.get(ResponseCache.COMMUNITY_STATS, "all",
+                communityService::getCommunityStats);
         return ResponseEntity.ok(ApiResponse.success(stats));
     }
 
     @GetMapping("/categories")
     public ResponseEntity<ApiResponse<List<QuizCategoryResponse>>> getCommunityCategories() {
-        List<QuizCategoryResponse> categories = communityService.getCommunityCategories();
+        List<QuizCategoryResponse> categories = responseCache.get(ResponseCache.COMMUNITY_CATEGORIES, "all",
+                communityService::getCommunityCategories);
         return ResponseEntity.ok(ApiResponse.success(categories));
     }
 
     @GetMapping("/categories/{categoryId}/posts")
-    public ResponseEntity<ApiResponse<Page<CommunityPostResponse>>> getCategoryPosts(
+    public ResponseEntity<ApiResponse<?>> getCategoryPosts(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "recent") String sort,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
+        // A cursor (empty for the first page) switches to keyset paging: no OFFSET scan and no count query
+        if (cursor != null) {
+            CursorPage<CommunityPostResponse> posts = communityService.getCategoryPosts(categoryId, sort, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success(posts));
+        }
+
         Page<CommunityPostResponse> posts = communityService.getCategoryPosts(categoryId, sort, page, size);
         return ResponseEntity.ok(ApiResponse.success(posts));
     }
@@ -52,8 +64,9 @@ public class CommunityController {
     }
 
     @GetMapping("/experts")
-    public ResponseEntity<ApiResponse<List<User>>> getExperts() {
-        List<User> experts = communityService.getExperts();
+    public ResponseEntity<ApiResponse<List<UserResponse>>> getExperts() {
+        List<UserResponse> experts = responseCache.get(ResponseCache.COMMUNITY_EXPERTS, "all",
+                communityService::getExperts);
         return ResponseEntity.ok(ApiResponse.success(experts));
     }
 }
\ No newline at end of file
@@ -1,8 +1,11 @@
 package com.mindquest.controller;
 
 import com.mindquest.dto.response.ApiResponse;
+import com.mindquest.dto.response.CursorPage;
+import com.mindquest.dto.response.LeaderboardResponse;
 import com.mindquest.dto.response.PointsHistoryResponse;
 import com.mindquest.dto.response.PointsSummaryResponse;
+import com.mindquest.service.LeaderboardService;
 import com.mindquest.service.PointsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -17,6 +20,9 @@ public class PointsController {
     @Autowired
     private PointsService pointsService;
 
+    @Autowired
+    private LeaderboardService leaderboardService;
+
     @GetMapping("/summary")
     public ResponseEntity<ApiResponse<PointsSummaryResponse>> getPointsSummary(Authentication authentication) {
         PointsSummaryResponse summary = pointsService.getPointsSummary(authentication);
@@ -24,12 +30,37 @@ public class PointsController {
     }
 
     @GetMapping("/history")
-    public ResponseEntity<ApiResponse<Page<PointsHistoryResponse>>> getPointsHistory(
+    public ResponseEntity<ApiResponse<?>> getPointsHistory(
             Authentication authentication,
             @RequestParam(required = false) String type,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
+        // A cursor (empty for the first page) switches to keyset paging: no OFFSET scan and no count query
+        if (cursor != null) {
+            CursorPage<PointsHistoryResponse> history = pointsService.getPointsHistory(authentication, type, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success(history));
+        }
+
         Page<PointsHistoryResponse> history = pointsService.getPointsHistory(authentication, type, page, size);
         return ResponseEntity.ok(ApiResponse.success(history));
     }
+
+    @GetMapping("/leaderboard")
+    public ResponseEntity<ApiResponse<LeaderboardResponse>> getLeaderboard(
+            Authentication authentication,
+            @RequestParam(required = false) String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        LeaderboardResponse leaderboard = leaderboardService.getTop(authentication, window, limit);
+        return ResponseEntity.ok(ApiResponse.success(leaderboard));
+    }
+
+    @GetMapping("/leaderboard/around")
+    public ResponseEntity<ApiResponse<LeaderboardResponse>> getLeaderboardAroundUser(
+            Authentication authentication,
+            @RequestParam(required = false) String window,
+            @RequestParam(defaultValue = "5") int radius) {
+        LeaderboardResponse leaderboard = leaderboardService.getAround(authentication, window, radius);
+        return ResponseEntity.ok(ApiResponse.success(leaderboard));
+    }
 }
\ No newline at end of file
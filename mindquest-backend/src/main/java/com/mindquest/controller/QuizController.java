@@ -3,6 +3,8 @@ package com.mindquest.controller;
 import com.mindquest.dto.request.QuizSubmissionRequest;
 import com.mindquest.dto.response.*;
 import com.mindquest.service.QuizService;
+import com.mindquest.service.QuizSessionTokens;
+import com.mindquest.service.ResponseCache;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -19,13 +21,18 @@ public class QuizController {
     @Autowired
     private QuizService quizService;
 
+    @Autowired
+    private ResponseCache responseCache;
+
     @GetMapping("/categories")
     public ResponseEntity<ApiResponse<Page<QuizCategoryResponse>>> getCategories(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String difficulty,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        Page<QuizCategoryResponse> categories = quizService.getCategories(search, difficulty, page, size);
+        String key = search + "|" + difficulty + "|" + page + "|" + size;
+        Page<QuizCategoryResponse> categories = responseCache.get(ResponseCache.QUIZ_CATEGORIES, key,
+                () -> quizService.getCategories(search, difficulty, page, size));
         return ResponseEntity.ok(ApiResponse.success(categories));
     }
 
@@ -33,25 +40,47 @@ public class QuizController {
     public ResponseEntity<ApiResponse<List<QuizQuestionResponse>>> getQuizQuestions(
             @PathVariable Long categoryId,
             Authentication authentication) {
-        List<QuizQuestionResponse> questions = quizService.getQuizQuestions(categoryId, authentication);
-        return ResponseEntity.ok(ApiResponse.success(questions));
+        QuizService.ServedQuiz quiz = quizService.getQuizQuestions(categoryId, authentication);
+        return ResponseEntity.ok()
+                .header(QuizSessionTokens.HEADER, quiz.getToken())
+                .body(ApiResponse.success(quiz.getQuestions()));
     }
 
     @PostMapping("/{categoryId}/submit")
     public ResponseEntity<ApiResponse<QuizResultResponse>> submitQuiz(
             @PathVariable Long categoryId,
             @Valid @RequestBody QuizSubmissionRequest request,
+            @RequestHeader(value = QuizSessionTokens.HEADER, required = false) String sessionToken,
             Authentication authentication) {
+        if (request.getSessionToken() == null && sessionToken != null) {
+            request.setSessionToken(sessionToken);
+        }
         QuizResultResponse result = quizService.submitQuiz(categoryId, request, authentication);
         return ResponseEntity.ok(ApiResponse.success(result, "Quiz submitted successfully"));
     }
 
+    @GetMapping("/{categoryId}/leaderboard")
+    public ResponseEntity<ApiResponse<LeaderboardResponse>> getCategoryLeaderboard(
+            @PathVariable Long categoryId,
+            Authentication authentication,
+            @RequestParam(defaultValue = "10") int limit) {
+        LeaderboardResponse leaderboard = quizService.getCategoryLeaderboard(categoryId, authentication, limit);
+        return ResponseEntity.ok(ApiResponse.success(leaderboard));
+    }
+
     @GetMapping("/history")
-    public ResponseEntity<ApiResponse<Page<QuizHistoryResponse>>> getQuizHistory(
+    public ResponseEntity<ApiResponse<?>> getQuizHistory(
             Authentication authentication,
             @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
+        // A cursor (empty for the first page) switches to keyset paging: no OFFSET scan and no count query
+        if (cursor != null) {
+            CursorPage<QuizHistoryResponse> history = quizService.getQuizHistory(authentication, categoryId, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success(history));
+        }
+
         Page<QuizHistoryResponse> history = quizService.getQuizHistory(authentication, categoryId, page, size);
         return ResponseEntity.ok(ApiResponse.success(history));
     }
@@ -3,7 +3,9 @@ package com.mindquest.controller;
 import com.mindquest.dto.request.RedeemRewardRequest;
 import com.mindquest.dto.response.ApiResponse;
 import com.mindquest.dto.response.CryptoRewardResponse;
+import com.mindquest.dto.response.CursorPage;
 import com.mindquest.dto.response.RedemptionResponse;
+import com.mindquest.service.RewardCatalog;
 import com.mindquest.service.RewardService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +13,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -22,24 +25,43 @@ public class RewardController {
     private RewardService rewardService;
 
     @GetMapping("/available")
-    public ResponseEntity<ApiResponse<List<CryptoRewardResponse>>> getAvailableRewards(Authentication authentication) {
-        List<CryptoRewardResponse> rewards = rewardService.getAvailableRewards(authentication);
-        return ResponseEntity.ok(ApiResponse.success(rewards));
+    public ResponseEntity<ApiResponse<List<CryptoRewardResponse>>> getAvailableRewards(
+            Authentication authentication,
+            WebRequest webRequest) {
+        RewardCatalog.Listing listing = rewardService.getAvailableRewards(authentication);
+        // Sets the ETag and answers 304 with no body when If-None-Match still matches
+        if (webRequest.checkNotModified(listing.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(listing.getEtag())
+                .body(ApiResponse.success(listing.getRewards()));
     }
 
     @PostMapping("/redeem")
     public ResponseEntity<ApiResponse<RedemptionResponse>> redeemReward(
             @Valid @RequestBody RedeemRewardRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication authentication) {
+        if (request.getIdempotencyKey() == null && idempotencyKey != null) {
+            request.setIdempotencyKey(idempotencyKey);
+        }
         RedemptionResponse redemption = rewardService.redeemReward(request, authentication);
         return ResponseEntity.ok(ApiResponse.success(redemption, "Reward redeemed successfully"));
     }
 
     @GetMapping("/history")
-    public ResponseEntity<ApiResponse<Page<RedemptionResponse>>> getRedemptionHistory(
+    public ResponseEntity<ApiResponse<?>> getRedemptionHistory(
             Authentication authentication,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
+        // A cursor (empty for the first page) switches to keyset paging: no OFFSET scan and no count query
+        if (cursor != null) {
+            CursorPage<RedemptionResponse> history = rewardService.getRedemptionHistory(authentication, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success(history));
+        }
+
         Page<RedemptionResponse> history = rewardService.getRedemptionHistory(authentication, page, size);
         return ResponseEntity.ok(ApiResponse.success(history));
     }
@@ -13,12 +13,14 @@ public class QuizSubmissionRequest {
     @NotNull
     private Integer totalTimeSpent;
 
-    @NotNull
+    // Informational only: the attempt is timed from the quiz session
     private LocalDateTime startedAt;
 
-    @NotNull
     private LocalDateTime completedAt;
 
+    // Token from the X-Quiz-Session header of the questions response; may also be sent as that header
+    private String sessionToken;
+
     // Constructors
     public QuizSubmissionRequest() {}
 
@@ -35,6 +37,9 @@ public class QuizSubmissionRequest {
     public LocalDateTime getCompletedAt() { return completedAt; }
     public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
 
+    public String getSessionToken() { return sessionToken; }
+    public void setSessionToken(String sessionToken) { this.sessionToken = sessionToken; }
+
     public static class QuizAnswerRequest {
         @NotNull
         private Long questionId;
@@ -2,6 +2,7 @@ package com.mindquest.dto.request;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 public class RedeemRewardRequest {
     @NotNull
@@ -10,6 +11,10 @@ public class RedeemRewardRequest {
     @NotBlank
     private String walletAddress;
 
+    // Optional client-chosen key; retries carrying the same key get the original redemption back
+    @Size(max = 100)
+    private String idempotencyKey;
+
     // Constructors
     public RedeemRewardRequest() {}
 
@@ -24,4 +29,7 @@ public class RedeemRewardRequest {
 
     public String getWalletAddress() { return walletAddress; }
     public void setWalletAddress(String walletAddress) { this.walletAddress = walletAddress; }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
 }
\ No newline at end of file
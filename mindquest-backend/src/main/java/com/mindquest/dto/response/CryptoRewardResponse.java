@@ -9,10 +9,6 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class CryptoRewardResponse {
-    public CryptoRewardResponse(String string, String walletAddress2, String cryptoType2, String value, String string2,
-            Object object, LocalDateTime now, String network2) {
-        //TODO Auto-generated constructor stub
-    }
     private String id;
     private String cryptoType;
     private double amount;
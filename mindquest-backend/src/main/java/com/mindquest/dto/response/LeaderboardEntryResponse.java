@@ -0,0 +1,16 @@
+package com.mindquest.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryResponse {
+    private String userId;
+    private String name;
+    private String avatar;
+    private Long score;
+    private Long rank;
+}
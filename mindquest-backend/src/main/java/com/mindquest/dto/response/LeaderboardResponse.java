@@ -0,0 +1,17 @@
+package com.mindquest.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardResponse {
+    private Long userRank;
+    private Double userPercentile;
+    private Long totalPlayers;
+    private List<LeaderboardEntryResponse> entries;
+}
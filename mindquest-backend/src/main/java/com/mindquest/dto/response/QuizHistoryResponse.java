@@ -10,6 +10,8 @@ public class QuizHistoryResponse {
     private Long totalQuestions;
     private String correctAnswers;
     private LocalDateTime completedAt;
+    private Long rank;
+    private Double percentile;
 
     public QuizHistoryResponse() {}
 
@@ -78,4 +80,20 @@ public class QuizHistoryResponse {
     public void setCompletedAt(LocalDateTime completedAt) {
         this.completedAt = completedAt;
     }
+
+    public Long getRank() {
+        return rank;
+    }
+
+    public void setRank(Long rank) {
+        this.rank = rank;
+    }
+
+    public Double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(Double percentile) {
+        this.percentile = percentile;
+    }
 }
\ No newline at end of file
@@ -19,4 +19,6 @@ public class QuizResultResponse {
     private LocalDateTime completedAt;
     private long timeTaken;
     private double accuracy;
+    private long rank;
+    private double percentile;
 }
\ No newline at end of file
@@ -12,11 +12,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "community_posts")
+@Table(name = "community_posts", indexes = {
+    @Index(name = "idx_community_posts_category_created", columnList = "category_id, created_at, id")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class CommunityPost {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "community_posts_seq")
+    @SequenceGenerator(name = "community_posts_seq", sequenceName = "community_posts_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -1,8 +1,11 @@
 package com.mindquest.entity;
 
+import com.mindquest.service.CryptoRewardChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -11,10 +14,13 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "crypto_rewards")
-@EntityListeners(AuditingEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners({AuditingEntityListener.class, CryptoRewardChangeListener.class})
 public class CryptoReward {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "crypto_rewards_seq")
+    @SequenceGenerator(name = "crypto_rewards_seq", sequenceName = "crypto_rewards_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -84,13 +90,28 @@ public class CryptoReward {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    // Value is stored as "<amount> <symbol>", e.g. "0.1 ETH"
     public String getCryptoType() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'getCryptoType'");
+        if (value == null) {
+            return null;
+        }
+        String[] parts = value.trim().split("\\s+");
+        return parts.length > 1 ? parts[parts.length - 1] : null;
+    }
+
+    public double getAmount() {
+        if (value == null) {
+            return 0.0;
+        }
+        try {
+            return Double.parseDouble(value.trim().split("\\s+")[0]);
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
     }
 
     public String getNetwork() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'getNetwork'");
+        // There is no network column yet; the token symbol is the closest thing we store
+        return getCryptoType();
     }
 }
\ No newline at end of file
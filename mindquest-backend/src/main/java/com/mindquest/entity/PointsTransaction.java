@@ -9,11 +9,14 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "points_transactions")
+@Table(name = "points_transactions", indexes = {
+    @Index(name = "idx_points_transactions_user_created", columnList = "user_id, created_at, id")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class PointsTransaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "points_transactions_seq")
+    @SequenceGenerator(name = "points_transactions_seq", sequenceName = "points_transactions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -75,6 +78,7 @@ public class PointsTransaction {
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
     public enum TransactionType {
-        EARNED, REDEEMED, BONUS
+        // REFUNDED returns a REDEEMED amount whose payout failed, so it counts against total redeemed
+        EARNED, REDEEMED, BONUS, REFUNDED
     }
 }
\ No newline at end of file
@@ -1,9 +1,12 @@
 package com.mindquest.entity;
 
+import com.mindquest.service.QuestionChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -14,10 +17,11 @@ import java.util.List;
 
 @Entity
 @Table(name = "questions")
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, QuestionChangeListener.class})
 public class Question {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "questions_seq")
+    @SequenceGenerator(name = "questions_seq", sequenceName = "questions_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -31,8 +35,10 @@ public class Question {
     @Enumerated(EnumType.STRING)
     private QuizCategory.Difficulty difficulty = QuizCategory.Difficulty.MEDIUM;
 
+    // Only the options are cached: the question row itself carries statistics that are written in bulk
     @ElementCollection
     @OrderColumn
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<String> options = new ArrayList<>();
 
     @NotNull
@@ -53,9 +59,14 @@ public class Question {
 
     private Boolean isActive = true;
 
-    // Usage statistics
+    // Usage statistics, only ever changed by QuestionStatsAggregator's bulk updates, never by flushing this entity
+    @Column(updatable = false)
     private Long timesUsed = 0L;
+
+    @Column(updatable = false)
     private Double averageScore = 0.0;
+
+    @Column(updatable = false)
     private Double correctPercentage = 0.0;
 
     @CreatedDate
@@ -6,7 +6,8 @@ import jakarta.persistence.*;
 @Table(name = "quiz_answers")
 public class QuizAnswer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quiz_answers_seq")
+    @SequenceGenerator(name = "quiz_answers_seq", sequenceName = "quiz_answers_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -34,6 +35,17 @@ public class QuizAnswer {
         this.points = this.correct ? question.getPoints() : 0;
     }
 
+    // For callers that graded the answer already and only hold a reference to the question
+    public QuizAnswer(QuizAttempt attempt, Question question, Integer selectedAnswer, Integer timeSpent,
+                      boolean correct, int points) {
+        this.attempt = attempt;
+        this.question = question;
+        this.selectedAnswer = selectedAnswer;
+        this.timeSpent = timeSpent;
+        this.correct = correct;
+        this.points = correct ? points : 0;
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -9,11 +9,16 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "quiz_attempts")
+@Table(name = "quiz_attempts", indexes = {
+    @Index(name = "idx_quiz_attempts_user_created", columnList = "user_id, created_at, id")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_quiz_attempts_user_category", columnNames = {"user_id", "category_id"})
+})
 @EntityListeners(AuditingEntityListener.class)
 public class QuizAttempt {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quiz_attempts_seq")
+    @SequenceGenerator(name = "quiz_attempts_seq", sequenceName = "quiz_attempts_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
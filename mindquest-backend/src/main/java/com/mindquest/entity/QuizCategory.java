@@ -3,6 +3,9 @@ package com.mindquest.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -13,10 +16,13 @@ import java.util.List;
 
 @Entity
 @Table(name = "quiz_categories")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @EntityListeners(AuditingEntityListener.class)
 public class QuizCategory {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quiz_categories_seq")
+    @SequenceGenerator(name = "quiz_categories_seq", sequenceName = "quiz_categories_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -42,12 +48,18 @@ public class QuizCategory {
     private String borderColor;
 
     @ElementCollection
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<String> subcategories = new ArrayList<>();
 
     @ElementCollection
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<String> moderators = new ArrayList<>();
 
     @ElementCollection
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<String> rules = new ArrayList<>();
 
     private Boolean isActive = true;
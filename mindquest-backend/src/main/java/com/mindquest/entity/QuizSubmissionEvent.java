@@ -0,0 +1,92 @@
+package com.mindquest.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Size;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+// Outbox row written in the same transaction as a quiz attempt. SubmissionPipeline applies the points and
+// level-up it describes afterwards and stamps processedAt in the transaction that does so.
+@Entity
+@Table(name = "quiz_submission_events", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_quiz_submission_events_attempt", columnNames = "attempt_id")
+})
+@EntityListeners(AuditingEntityListener.class)
+public class QuizSubmissionEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quiz_submission_events_seq")
+    @SequenceGenerator(name = "quiz_submission_events_seq", sequenceName = "quiz_submission_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long attemptId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long points;
+
+    @Size(max = 500)
+    private String description;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+
+    private LocalDateTime processedAt;
+
+    // Retry bookkeeping: an event that keeps failing is parked after the configured number of attempts
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime parkedAt;
+
+    @Size(max = 500)
+    private String failureReason;
+
+    // Constructors
+    public QuizSubmissionEvent() {}
+
+    public QuizSubmissionEvent(Long attemptId, Long userId, Long points, String description) {
+        this.attemptId = attemptId;
+        this.userId = userId;
+        this.points = points;
+        this.description = description;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getAttemptId() { return attemptId; }
+    public void setAttemptId(Long attemptId) { this.attemptId = attemptId; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getPoints() { return points; }
+    public void setPoints(Long points) { this.points = points; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getProcessedAt() { return processedAt; }
+    public void setProcessedAt(LocalDateTime processedAt) { this.processedAt = processedAt; }
+
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public LocalDateTime getParkedAt() { return parkedAt; }
+    public void setParkedAt(LocalDateTime parkedAt) { this.parkedAt = parkedAt; }
+
+    public String getFailureReason() { return failureReason; }
+    public void setFailureReason(String failureReason) { this.failureReason = failureReason; }
+}
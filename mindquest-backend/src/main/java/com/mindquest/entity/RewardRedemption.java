@@ -13,14 +13,20 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reward_redemptions")
+@Table(name = "reward_redemptions", indexes = {
+    @Index(name = "idx_reward_redemptions_user_created", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_reward_redemptions_status_next_attempt", columnList = "status, next_attempt_at")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_reward_redemptions_user_idempotency_key", columnNames = {"user_id", "idempotency_key"})
+})
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class RewardRedemption {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reward_redemptions_seq")
+    @SequenceGenerator(name = "reward_redemptions_seq", sequenceName = "reward_redemptions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -46,9 +52,24 @@ public class RewardRedemption {
     @Size(max = 255)
     private String transactionId;
 
+    @Size(max = 100)
+    private String idempotencyKey;
+
+    // Hash of the request that claimed the idempotency key, so the key can't be replayed for another one
+    @Size(max = 64)
+    private String requestFingerprint;
+
     private LocalDateTime estimatedDelivery;
     private LocalDateTime completedAt;
 
+    // Settlement bookkeeping, written by RedemptionSettlementWorker
+    private Integer attempts = 0;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime claimedAt;
+
+    @Size(max = 500)
+    private String failureReason;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
@@ -1,5 +1,6 @@
 package com.mindquest.entity;
 
+import com.mindquest.service.UserChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -13,17 +14,19 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 @Entity
 @Table(name = "users")
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, UserChangeListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -59,7 +62,16 @@ public class User {
     private Set<Permission> permissions = new HashSet<>();
 
     private Integer level = 1;
+    // Only ever changed by the atomic updates in UserRepository, never by flushing this entity
+    @Column(updatable = false)
     private Long points = 0L;
+
+    // Lifetime ledger totals kept in step by the same updates; PointsLedgerReconciler re-derives them
+    @Column(updatable = false)
+    private Long totalEarned = 0L;
+
+    @Column(updatable = false)
+    private Long totalRedeemed = 0L;
     private Long rank = 0L;
 
     @Enumerated(EnumType.STRING)
@@ -70,6 +82,9 @@ public class User {
 
     private LocalDateTime lastActive;
 
+    // Bumped whenever role, permissions or status change so tokens carrying the old claims stop being trusted
+    private Long tokenVersion = 0L;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
@@ -84,6 +99,31 @@ public class User {
         this.lastActive = LocalDateTime.now();
     }
 
+    public void setRole(Role role) {
+        if (this.role != role) {
+            bumpTokenVersion();
+        }
+        this.role = role;
+    }
+
+    public void setPermissions(Set<Permission> permissions) {
+        if (!Objects.equals(this.permissions, permissions)) {
+            bumpTokenVersion();
+        }
+        this.permissions = permissions;
+    }
+
+    public void setStatus(UserStatus status) {
+        if (this.status != status) {
+            bumpTokenVersion();
+        }
+        this.status = status;
+    }
+
+    private void bumpTokenVersion() {
+        this.tokenVersion = (tokenVersion != null ? tokenVersion : 0L) + 1;
+    }
+
     // Wallet address method (implement this properly)
     public String getWalletAddress() {
         // Placeholder implementation - replace with actual logic
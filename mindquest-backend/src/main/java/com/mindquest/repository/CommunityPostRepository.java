@@ -11,6 +11,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface CommunityPostRepository extends JpaRepository<CommunityPost, Long> {
     
@@ -22,11 +25,20 @@ public interface CommunityPostRepository extends JpaRepository<CommunityPost, Lo
                                               @Param("sort") String sort, 
                                               Pageable pageable);
     
+    // The redundant createdAt bound is what lets the index range start at the cursor
+    @Query("SELECT p FROM CommunityPost p WHERE p.category = :category AND " +
+           "p.createdAt <= :createdAt AND (p.createdAt < :createdAt OR p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<CommunityPost> findByCategoryBefore(@Param("category") QuizCategory category,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
+    
     @Query("SELECT COUNT(p) FROM CommunityPost p")
     Long countAllPosts();
     
-    @Query("SELECT COUNT(p) FROM CommunityPost p WHERE p.category = :category")
-    Long countByCategory(@Param("category") QuizCategory category);
+    @Query("SELECT p.category.id, COUNT(p) FROM CommunityPost p GROUP BY p.category.id")
+    List<Object[]> countGroupedByCategory();
     
     @Modifying
     @Query("UPDATE CommunityPost p SET p.views = p.views + 1 WHERE p.id = :postId")
@@ -2,14 +2,19 @@ package com.mindquest.repository;
 
 import com.mindquest.entity.PointsTransaction;
 import com.mindquest.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PointsTransactionRepository extends JpaRepository<PointsTransaction, Long> {
@@ -21,12 +26,25 @@ public interface PointsTransactionRepository extends JpaRepository<PointsTransac
                                                  @Param("type") PointsTransaction.TransactionType type, 
                                                  Pageable pageable);
     
+    // The redundant createdAt bound is what lets the index range start at the cursor
+    @Query("SELECT pt FROM PointsTransaction pt WHERE pt.user = :user AND " +
+           "(:type IS NULL OR pt.type = :type) AND " +
+           "pt.createdAt <= :createdAt AND (pt.createdAt < :createdAt OR pt.id < :id) " +
+           "ORDER BY pt.createdAt DESC, pt.id DESC")
+    List<PointsTransaction> findByUserWithFiltersBefore(@Param("user") User user,
+                                                        @Param("type") PointsTransaction.TransactionType type,
+                                                        @Param("createdAt") LocalDateTime createdAt,
+                                                        @Param("id") Long id,
+                                                        Pageable pageable);
+    
     @Query("SELECT pt FROM PointsTransaction pt WHERE pt.user = :user ORDER BY pt.createdAt DESC")
     List<PointsTransaction> findRecentByUser(@Param("user") User user, Pageable pageable);
     
-    @Query("SELECT SUM(pt.points) FROM PointsTransaction pt WHERE pt.user = :user AND pt.type = 'EARNED'")
-    Long getTotalEarnedPointsByUser(@Param("user") User user);
+    @Query("SELECT MAX(pt.id) FROM PointsTransaction pt")
+    Long findMaxId();
     
-    @Query("SELECT SUM(pt.points) FROM PointsTransaction pt WHERE pt.user = :user AND pt.type = 'REDEEMED'")
-    Long getTotalRedeemedPointsByUser(@Param("user") User user);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT pt.id, pt.user.id, pt.points, pt.createdAt FROM PointsTransaction pt " +
+           "WHERE pt.type = 'EARNED' AND pt.createdAt >= :since AND pt.id <= :maxId")
+    Stream<Object[]> streamEarnedSince(@Param("since") LocalDateTime since, @Param("maxId") Long maxId);
 }
\ No newline at end of file
@@ -9,13 +9,20 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface QuestionRepository extends JpaRepository<Question, Long> {
     
-    @Query("SELECT q FROM Question q WHERE q.isActive = true AND q.category = :category ORDER BY RANDOM()")
-    List<Question> findRandomQuestionsByCategory(@Param("category") QuizCategory category, Pageable pageable);
+    @Query("SELECT q.id FROM Question q WHERE q.isActive = true AND q.category.id = :categoryId")
+    List<Long> findActiveIdsByCategoryId(@Param("categoryId") Long categoryId);
+    
+    @Query("SELECT q.id, q.correctAnswer, q.points, q.timeLimit FROM Question q WHERE q.id IN :ids")
+    List<Object[]> findAnswerKeysByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT q FROM Question q LEFT JOIN FETCH q.options WHERE q.id IN :ids")
+    List<Question> findAllWithOptionsByIdIn(@Param("ids") Collection<Long> ids);
     
     @Query("SELECT q FROM Question q WHERE " +
            "(:category IS NULL OR q.category.id = :category) AND " +
@@ -27,7 +34,8 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
                                           @Param("search") String search, 
                                           Pageable pageable);
     
-    Long countByCategory(QuizCategory category);
+    @Query("SELECT q.category.id, COUNT(q) FROM Question q GROUP BY q.category.id")
+    List<Object[]> countGroupedByCategory();
     
     @Query("SELECT COUNT(q) FROM Question q WHERE q.isActive = true")
     Long countActiveQuestions();
@@ -1,17 +1,20 @@
 package com.mindquest.repository;
 
 import com.mindquest.entity.QuizAttempt;
-import com.mindquest.entity.QuizCategory;
 import com.mindquest.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long> {
@@ -26,7 +29,25 @@ public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long>
                                             @Param("categoryId") Long categoryId,
                                             Pageable pageable);
 
-    Optional<QuizAttempt> findByUserAndCategory(User user, QuizCategory category);
+    // The redundant createdAt bound is what lets the index range start at the cursor
+    @Query("SELECT qa FROM QuizAttempt qa WHERE qa.user = :user AND " +
+           "(:categoryId IS NULL OR qa.category.id = :categoryId) AND " +
+           "qa.createdAt <= :createdAt AND (qa.createdAt < :createdAt OR qa.id < :id) " +
+           "ORDER BY qa.createdAt DESC, qa.id DESC")
+    List<QuizAttempt> findByUserWithFiltersBefore(@Param("user") User user,
+                                                  @Param("categoryId") Long categoryId,
+                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("id") Long id,
+                                                  Pageable pageable);
+
+    boolean existsByUserIdAndCategoryId(Long userId, Long categoryId);
+
+    @Query("SELECT qa.category.id FROM QuizAttempt qa WHERE qa.user.id = :userId")
+    List<Long> findCategoryIdsByUserId(@Param("userId") Long userId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT qa.user.id, qa.score, qa.timeSpent FROM QuizAttempt qa WHERE qa.category.id = :categoryId")
+    Stream<Object[]> streamScoresByCategoryId(@Param("categoryId") Long categoryId);
 
     // Corrected: Use BETWEEN for LocalDateTime range (recommended for compatibility)
     @Query("SELECT COUNT(qa) FROM QuizAttempt qa WHERE qa.createdAt >= :start AND qa.createdAt < :end")
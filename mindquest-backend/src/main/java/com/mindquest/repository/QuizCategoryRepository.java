@@ -1,16 +1,26 @@
 package com.mindquest.repository;
 
 import com.mindquest.entity.QuizCategory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface QuizCategoryRepository extends JpaRepository<QuizCategory, Long> {
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<QuizCategory> findAll();
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c FROM QuizCategory c WHERE c.isActive = true AND " +
            "(:search IS NULL OR :search = '' OR UPPER(c.title) LIKE UPPER(CONCAT('%', :search, '%')) OR UPPER(c.description) LIKE UPPER(CONCAT('%', :search, '%'))) AND " +
            "(:difficulty IS NULL OR c.difficulty = :difficulty)")
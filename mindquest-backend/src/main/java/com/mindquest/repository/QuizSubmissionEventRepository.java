@@ -0,0 +1,42 @@
+package com.mindquest.repository;
+
+import com.mindquest.entity.QuizSubmissionEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface QuizSubmissionEventRepository extends JpaRepository<QuizSubmissionEvent, Long> {
+
+    @Query("SELECT e FROM QuizSubmissionEvent e WHERE e.processedAt IS NULL AND e.parkedAt IS NULL AND " +
+           "e.createdAt < :before AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now) ORDER BY e.id")
+    List<QuizSubmissionEvent> findPending(@Param("before") LocalDateTime before, @Param("now") LocalDateTime now,
+                                          Pageable pageable);
+
+    @Query("SELECT MIN(e.createdAt) FROM QuizSubmissionEvent e WHERE e.processedAt IS NULL AND e.parkedAt IS NULL")
+    LocalDateTime findOldestPendingCreatedAt();
+
+    // Succeeds for exactly one caller per event, which makes applying it idempotent
+    @Modifying
+    @Query("UPDATE QuizSubmissionEvent e SET e.processedAt = :now WHERE e.id = :id AND e.processedAt IS NULL")
+    int markProcessed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // The attempts check skips the update when another delivery of the same event got there first
+    @Modifying
+    @Query("UPDATE QuizSubmissionEvent e SET e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt, " +
+           "e.parkedAt = :parkedAt, e.failureReason = :reason " +
+           "WHERE e.id = :id AND e.processedAt IS NULL AND e.attempts = :previousAttempts")
+    int recordFailure(@Param("id") Long id, @Param("previousAttempts") Integer previousAttempts,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("parkedAt") LocalDateTime parkedAt,
+                      @Param("reason") String reason);
+
+    @Modifying
+    @Query("DELETE FROM QuizSubmissionEvent e WHERE e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
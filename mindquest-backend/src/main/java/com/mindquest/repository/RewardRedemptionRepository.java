@@ -9,12 +9,27 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface RewardRedemptionRepository extends JpaRepository<RewardRedemption, Long> {
     
     @Query("SELECT rr FROM RewardRedemption rr WHERE rr.user = :user ORDER BY rr.createdAt DESC")
     Page<RewardRedemption> findByUserOrderByCreatedAtDesc(@Param("user") User user, Pageable pageable);
     
+    // The redundant createdAt bound is what lets the index range start at the cursor
+    @Query("SELECT rr FROM RewardRedemption rr WHERE rr.user = :user AND " +
+           "rr.createdAt <= :createdAt AND (rr.createdAt < :createdAt OR rr.id < :id) " +
+           "ORDER BY rr.createdAt DESC, rr.id DESC")
+    List<RewardRedemption> findByUserBefore(@Param("user") User user,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
+    
+    Optional<RewardRedemption> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+    
     @Query("SELECT rr FROM RewardRedemption rr WHERE rr.status = :status")
     Page<RewardRedemption> findByStatus(@Param("status") RewardRedemption.RedemptionStatus status, Pageable pageable);
 }
\ No newline at end of file
@@ -1,21 +1,29 @@
 package com.mindquest.repository;
 
 import com.mindquest.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
     
+    @Query("SELECT COALESCE(u.tokenVersion, 0L) FROM User u WHERE u.id = :id")
+    Optional<Long> findTokenVersionById(@Param("id") Long id);
+    
     @Query("SELECT u FROM User u WHERE " +
            "(:role IS NULL OR u.role = :role) AND " +
            "(:status IS NULL OR u.status = :status) AND " +
@@ -31,6 +39,28 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT COUNT(u) FROM User u WHERE u.createdAt >= :today")
     Long countNewUsersToday(@Param("today") LocalDateTime today);
     
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE User u SET u.points = u.points + :delta, " +
+           "u.totalEarned = COALESCE(u.totalEarned, 0) + :delta WHERE u.id = :id")
+    int addPoints(@Param("id") Long id, @Param("delta") Long delta);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE User u SET u.points = u.points - :amount, " +
+           "u.totalRedeemed = COALESCE(u.totalRedeemed, 0) + :amount WHERE u.id = :id AND u.points >= :amount")
+    int deductPoints(@Param("id") Long id, @Param("amount") Long amount);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE User u SET u.points = u.points + :amount, " +
+           "u.totalRedeemed = COALESCE(u.totalRedeemed, 0) - :amount WHERE u.id = :id")
+    int refundPoints(@Param("id") Long id, @Param("amount") Long amount);
+    
+    @Query("SELECT u.points FROM User u WHERE u.id = :id")
+    Long findPointsById(@Param("id") Long id);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.id, u.points FROM User u")
+    Stream<Object[]> streamPoints();
+    
     @Query("SELECT u FROM User u ORDER BY u.points DESC")
     Page<User> findTopUsersByPoints(Pageable pageable);
 }
\ No newline at end of file
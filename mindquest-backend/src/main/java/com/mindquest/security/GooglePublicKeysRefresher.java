@@ -0,0 +1,34 @@
+package com.mindquest.security;
+
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+
+@Component
+public class GooglePublicKeysRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(GooglePublicKeysRefresher.class);
+
+    @Autowired
+    private GooglePublicKeysManager publicKeysManager;
+
+    // Google's certificates live for several hours; refreshing well inside that window means
+    // the verifier never finds them close to expiry and never fetches on the login path
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.google.certs-refresh-interval-ms:1800000}")
+    public void refresh() {
+        try {
+            publicKeysManager.refresh();
+            logger.debug("Refreshed Google public keys, valid until {}",
+                    Instant.ofEpochMilli(publicKeysManager.getExpirationTimeMilliseconds()));
+        } catch (GeneralSecurityException | IOException ex) {
+            logger.warn("Failed to refresh Google public keys: {}", ex.getMessage());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.mindquest.security;
 
 import com.mindquest.service.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,17 +26,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private TokenVersionCache tokenVersionCache;
+
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.parse(jwt) : null;
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                Long userId = tokenProvider.getUserIdFromJWT(jwt);
+            if (claims != null) {
+                // Trust the claims unless the user's role, permissions or status changed since issue
+                UserPrincipal principal = tokenProvider.getPrincipal(claims);
+                UserDetails userDetails;
+                if (principal != null && tokenVersionCache.isCurrent(principal.getId(), principal.getTokenVersion())) {
+                    userDetails = principal;
+                } else {
+                    userDetails = customUserDetailsService.loadUserById(tokenProvider.getUserId(claims));
+                }
 
-                UserDetails userDetails = customUserDetailsService.loadUserById(userId);
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
@@ -1,7 +1,9 @@
 package com.mindquest.security;
 
+import com.mindquest.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,12 +12,24 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
+    private static final String CLAIM_NAME = "name";
+    private static final String CLAIM_EMAIL = "email";
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_PERMISSIONS = "permissions";
+    private static final String CLAIM_VERSION = "ver";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -25,8 +39,22 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh-expiration}")
     private int jwtRefreshExpirationInMs;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @Value("${jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    // Built once; both are immutable and safe to share across request threads
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Full token -> claims of tokens whose signature was already checked
+    private final ConcurrentMap<String, Claims> verifiedTokens = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     public String generateToken(Authentication authentication) {
@@ -34,11 +62,21 @@ public class JwtTokenProvider {
 
         Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationInMs);
 
+        // Carry everything the filter needs to rebuild the principal without a database round-trip
+        List<String> permissions = userPrincipal.getPermissions().stream()
+                .map(Enum::name)
+                .collect(Collectors.toList());
+
         return Jwts.builder()
                 .setSubject(Long.toString(userPrincipal.getId()))
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey())
+                .claim(CLAIM_NAME, userPrincipal.getName())
+                .claim(CLAIM_EMAIL, userPrincipal.getUsername())
+                .claim(CLAIM_ROLE, userPrincipal.getRole().name())
+                .claim(CLAIM_PERMISSIONS, permissions)
+                .claim(CLAIM_VERSION, userPrincipal.getTokenVersion())
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -52,42 +90,73 @@ public class JwtTokenProvider {
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
                 .claim("type", "refresh")
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public Long getUserIdFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return Long.parseLong(claims.getSubject());
-    }
+    // Verifies the token once and returns its claims, or null when it is invalid or expired
+    public Claims parse(String token) {
+        Claims cached = verifiedTokens.get(token);
+        if (cached != null) {
+            if (cached.getExpiration() != null && cached.getExpiration().getTime() > System.currentTimeMillis()) {
+                return cached;
+            }
+            verifiedTokens.remove(token);
+            logger.error("Expired JWT token");
+            return null;
+        }
 
-    public boolean validateToken(String authToken) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(authToken);
-            return true;
-        } catch (SecurityException ex) {
-            logger.error("Invalid JWT signature");
-        } catch (MalformedJwtException ex) {
-            logger.error("Invalid JWT token");
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            if (verifiedTokens.size() >= verifiedCacheSize) {
+                verifiedTokens.clear();
+            }
+            verifiedTokens.put(token, claims);
+            return claims;
         } catch (ExpiredJwtException ex) {
             logger.error("Expired JWT token");
         } catch (UnsupportedJwtException ex) {
             logger.error("Unsupported JWT token");
+        } catch (MalformedJwtException ex) {
+            logger.error("Invalid JWT token");
+        } catch (JwtException ex) {
+            logger.error("Invalid JWT signature");
         } catch (IllegalArgumentException ex) {
             logger.error("JWT claims string is empty.");
         }
-        return false;
+        return null;
+    }
+
+    public Long getUserId(Claims claims) {
+        return Long.parseLong(claims.getSubject());
+    }
+
+    // Returns null for tokens without principal claims, such as refresh tokens
+    public UserPrincipal getPrincipal(Claims claims) {
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Object permissions = claims.get(CLAIM_PERMISSIONS);
+        Object version = claims.get(CLAIM_VERSION);
+        if (role == null || !(permissions instanceof List<?> permissionNames) || !(version instanceof Number)) {
+            return null;
+        }
+
+        Set<User.Permission> permissionSet = EnumSet.noneOf(User.Permission.class);
+        for (Object permission : permissionNames) {
+            permissionSet.add(User.Permission.valueOf(permission.toString()));
+        }
+
+        return new UserPrincipal(
+                getUserId(claims),
+                claims.get(CLAIM_NAME, String.class),
+                claims.get(CLAIM_EMAIL, String.class),
+                null,
+                User.Role.valueOf(role),
+                permissionSet,
+                ((Number) version).longValue()
+        );
     }
 
     public int getJwtExpirationInMs() {
         return jwtExpirationInMs;
     }
-}
\ No newline at end of file
+}
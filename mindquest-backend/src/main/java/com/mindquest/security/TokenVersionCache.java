@@ -0,0 +1,62 @@
+package com.mindquest.security;
+
+import com.mindquest.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Component
+public class TokenVersionCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${app.token-version-cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    @Value("${app.token-version-cache.max-entries:100000}")
+    private int maxEntries;
+
+    // userId -> current token version, refreshed from the database after the TTL
+    private final ConcurrentMap<Long, Entry> versions = new ConcurrentHashMap<>();
+
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        return tokenVersion >= currentVersion(userId);
+    }
+
+    public void update(Long userId, long tokenVersion) {
+        put(userId, tokenVersion);
+    }
+
+    private long currentVersion(Long userId) {
+        Entry entry = versions.get(userId);
+        if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+            return entry.version;
+        }
+
+        // A deleted user never matches, which sends the filter back to the database
+        long version = userRepository.findTokenVersionById(userId).orElse(Long.MAX_VALUE);
+        put(userId, version);
+        return version;
+    }
+
+    private void put(Long userId, long version) {
+        if (versions.size() >= maxEntries) {
+            versions.clear();
+        }
+        versions.put(userId, new Entry(version, System.currentTimeMillis() + ttlMs));
+    }
+
+    private static class Entry {
+        final long version;
+        final long expiresAt;
+
+        Entry(long version, long expiresAt) {
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class UserPrincipal implements UserDetails {
@@ -14,33 +15,45 @@ public class UserPrincipal implements UserDetails {
     private String name;
     private String email;
     private String password;
+    private User.Role role;
+    private Set<User.Permission> permissions;
+    private long tokenVersion;
     private Collection<? extends GrantedAuthority> authorities;
 
-    public UserPrincipal(Long id, String name, String email, String password, Collection<? extends GrantedAuthority> authorities) {
+    public UserPrincipal(Long id, String name, String email, String password,
+                         User.Role role, Set<User.Permission> permissions, long tokenVersion) {
         this.id = id;
         this.name = name;
         this.email = email;
         this.password = password;
-        this.authorities = authorities;
+        this.role = role;
+        this.permissions = permissions;
+        this.tokenVersion = tokenVersion;
+        this.authorities = buildAuthorities(role, permissions);
     }
 
     public static UserPrincipal create(User user) {
-        List<GrantedAuthority> authorities = user.getPermissions().stream()
-                .map(permission -> new SimpleGrantedAuthority("PERMISSION_" + permission.name()))
-                .collect(Collectors.toList());
-        
-        // Add role authority
-        authorities.add(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
-
         return new UserPrincipal(
                 user.getId(),
                 user.getName(),
                 user.getEmail(),
                 user.getPassword(),
-                authorities
+                user.getRole(),
+                Set.copyOf(user.getPermissions()),
+                user.getTokenVersion() != null ? user.getTokenVersion() : 0L
         );
     }
 
+    private static List<GrantedAuthority> buildAuthorities(User.Role role, Set<User.Permission> permissions) {
+        List<GrantedAuthority> authorities = permissions.stream()
+                .map(permission -> new SimpleGrantedAuthority("PERMISSION_" + permission.name()))
+                .collect(Collectors.toList());
+        
+        // Add role authority
+        authorities.add(new SimpleGrantedAuthority("ROLE_" + role.name()));
+        return authorities;
+    }
+
     public Long getId() {
         return id;
     }
@@ -49,6 +62,18 @@ public class UserPrincipal implements UserDetails {
         return name;
     }
 
+    public User.Role getRole() {
+        return role;
+    }
+
+    public Set<User.Permission> getPermissions() {
+        return permissions;
+    }
+
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+
     @Override
     public String getUsername() {
         return email;
@@ -83,4 +108,4 @@ public class UserPrincipal implements UserDetails {
     public boolean isEnabled() {
         return true;
     }
-}
\ No newline at end of file
+}
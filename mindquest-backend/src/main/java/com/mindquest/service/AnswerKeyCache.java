@@ -0,0 +1,236 @@
+package com.mindquest.service;
+
+import com.mindquest.repository.QuestionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+// What grading needs from a question, packed into one long per question in an open-addressing table:
+// bits 0-15 correct answer, 16-39 points, 40-62 time limit, and bit 63 marks the slot as filled.
+// Lookups are optimistic reads and take no lock. The table is only a fast path in front of the questions
+// table: load() answers for every id whether or not the entry could be kept.
+@Component
+public class AnswerKeyCache {
+
+    public static final long MISSING = 0L;
+
+    private static final long PRESENT = 1L << 63;
+    private static final int MAX_CORRECT_ANSWER = (1 << 16) - 1;
+    private static final int MAX_POINTS = (1 << 24) - 1;
+    private static final int MAX_TIME_LIMIT = (1 << 23) - 1;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Value("${app.answer-key-cache.max-entries:65536}")
+    private int maxEntries;
+
+    private final StampedLock lock = new StampedLock();
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int evictionHand;
+
+    // Bumped on every invalidation so a load that read the database before an edit committed can't put the
+    // old answer key back into the table afterwards
+    private long generation;
+
+    @PostConstruct
+    public void init() {
+        // At most half full, which keeps probe sequences short
+        int capacity = Integer.highestOneBit(Math.max(16, maxEntries) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    public static int correctAnswer(long packed) {
+        return (int) (packed & 0xFFFF);
+    }
+
+    public static int points(long packed) {
+        return (int) ((packed >>> 16) & 0xFFFFFF);
+    }
+
+    public static int timeLimit(long packed) {
+        return (int) ((packed >>> 40) & 0x7FFFFF);
+    }
+
+    // Packed key of a cached question, or MISSING
+    public long get(long questionId) {
+        long stamp = lock.tryOptimisticRead();
+        long packed = find(questionId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                packed = find(questionId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return packed;
+    }
+
+    // Packed keys for the given ids, in the same order, with MISSING for ids that have no question. Ids not
+    // cached are read in a single query and the result is taken from those rows, so what a caller gets never
+    // depends on whether the table kept them.
+    public long[] load(long[] questionIds) {
+        long[] packed = new long[questionIds.length];
+        List<Long> missing = null;
+        for (int i = 0; i < questionIds.length; i++) {
+            packed[i] = get(questionIds[i]);
+            if (packed[i] == MISSING) {
+                if (missing == null) {
+                    missing = new ArrayList<>();
+                }
+                missing.add(questionIds[i]);
+            }
+        }
+        if (missing == null) {
+            return packed;
+        }
+
+        long loadedAt = currentGeneration();
+        List<Object[]> rows = questionRepository.findAnswerKeysByIdIn(missing);
+        Map<Long, Long> loaded = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            loaded.put((Long) row[0], pack((Integer) row[1], (Integer) row[2], (Integer) row[3]));
+        }
+        for (int i = 0; i < questionIds.length; i++) {
+            if (packed[i] == MISSING) {
+                packed[i] = loaded.getOrDefault(questionIds[i], MISSING);
+            }
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            // Only the cache copy is skipped when an edit landed meanwhile; the rows read are still returned
+            if (generation == loadedAt) {
+                loaded.forEach(this::put);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return packed;
+    }
+
+    public void invalidate(long questionId) {
+        long stamp = lock.writeLock();
+        try {
+            generation++;
+            remove(questionId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private long currentGeneration() {
+        long stamp = lock.readLock();
+        try {
+            return generation;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Out-of-range values are clamped; both issuing and grading read them from here, so they stay consistent
+    private static long pack(Integer correctAnswer, Integer points, Integer timeLimit) {
+        return PRESENT
+                | clamp(correctAnswer, MAX_CORRECT_ANSWER)
+                | (long) clamp(points, MAX_POINTS) << 16
+                | (long) clamp(timeLimit, MAX_TIME_LIMIT) << 40;
+    }
+
+    private static long clamp(Integer value, int max) {
+        return value == null ? 0 : Math.max(0, Math.min(value, max));
+    }
+
+    private static int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private long find(long key) {
+        long[] keys = this.keys;
+        long[] values = this.values;
+        int mask = this.mask;
+        int index = slot(key) & mask;
+        // Bounded so a read racing a writer can never spin; the caller validates the result
+        for (int probes = 0; probes <= mask; probes++) {
+            long candidate = keys[index];
+            if (candidate == key) {
+                return values[index];
+            }
+            if (candidate == 0) {
+                return MISSING;
+            }
+            index = (index + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    private void put(long key, long value) {
+        if (key == 0) {
+            return;
+        }
+        int index = slot(key) & mask;
+        while (keys[index] != 0 && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        if (keys[index] == 0) {
+            if (size > 0 && size >= maxEntries) {
+                evictOne();
+                put(key, value);
+                return;
+            }
+            size++;
+        }
+        keys[index] = key;
+        values[index] = value;
+    }
+
+    // Frees one slot when the table is full. A hand sweeps the table, so evictions spread over all entries
+    // and everything else stays cached.
+    private void evictOne() {
+        while (keys[evictionHand] == 0) {
+            evictionHand = (evictionHand + 1) & mask;
+        }
+        remove(keys[evictionHand]);
+        evictionHand = (evictionHand + 1) & mask;
+    }
+
+    // Backward-shift deletion keeps every remaining key reachable without tombstones
+    private void remove(long key) {
+        int index = slot(key) & mask;
+        while (keys[index] != key) {
+            if (keys[index] == 0) {
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (keys[next] != 0) {
+            int home = slot(keys[next]) & mask;
+            // Move the entry into the gap unless its home slot lies cyclically in (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = 0;
+        values[gap] = 0;
+        size--;
+    }
+}
@@ -0,0 +1,93 @@
+package com.mindquest.service;
+
+import com.mindquest.repository.QuizAttemptRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Which categories each user has already taken, as a bitmap over category ids. A user's bitmap is loaded
+// from quiz_attempts on first use and replaced copy-on-write after each submission, so lookups never lock.
+// The unique (user_id, category_id) constraint remains the source of truth: a stale miss here only means
+// the duplicate is rejected by the database instead.
+@Component
+public class AttemptedCategoryIndex {
+
+    // Keeps a bitmap to at most 8 KB; categories with larger ids are checked against the database
+    private static final long MAX_BITMAP_CATEGORY_ID = 1 << 16;
+
+    @Autowired
+    private QuizAttemptRepository attemptRepository;
+
+    @Value("${app.attempted-categories.max-users:100000}")
+    private int maxUsers;
+
+    private final ConcurrentMap<Long, BitSet> attempted = new ConcurrentHashMap<>();
+
+    // Attempts recorded while a user's bitmap is being read from the database, merged in when it is installed
+    private final ConcurrentMap<Long, BitSet> recordedWhileLoading = new ConcurrentHashMap<>();
+
+    public boolean hasAttempted(Long userId, Long categoryId) {
+        if (!fitsBitmap(categoryId)) {
+            return attemptRepository.existsByUserIdAndCategoryId(userId, categoryId);
+        }
+        return load(userId).get(categoryId.intValue());
+    }
+
+    public void recordAttempt(Long userId, Long categoryId) {
+        if (!fitsBitmap(categoryId)) {
+            return;
+        }
+        int category = categoryId.intValue();
+        AfterCommit.run(() -> {
+            // Recorded for a load in progress first, so it cannot slip in between that load's read and install
+            recordedWhileLoading.computeIfPresent(userId, (id, categories) -> with(categories, category));
+            // Users that are not loaded pick the attempt up from the database on their next lookup
+            attempted.computeIfPresent(userId, (id, categories) -> with(categories, category));
+        });
+    }
+
+    private BitSet load(Long userId) {
+        BitSet categories = attempted.get(userId);
+        if (categories != null) {
+            return categories;
+        }
+
+        recordedWhileLoading.putIfAbsent(userId, new BitSet());
+        try {
+            BitSet loaded = new BitSet();
+            for (Long categoryId : attemptRepository.findCategoryIdsByUserId(userId)) {
+                if (fitsBitmap(categoryId)) {
+                    loaded.set(categoryId.intValue());
+                }
+            }
+            if (attempted.size() >= maxUsers) {
+                attempted.clear();
+            }
+            // Installed under the key's lock: an attempt recorded during the read is either merged here or
+            // applied to the installed bitmap by recordAttempt
+            return attempted.computeIfAbsent(userId, id -> {
+                BitSet recorded = recordedWhileLoading.get(id);
+                if (recorded != null) {
+                    loaded.or(recorded);
+                }
+                return loaded;
+            });
+        } finally {
+            recordedWhileLoading.remove(userId);
+        }
+    }
+
+    private static BitSet with(BitSet categories, int category) {
+        BitSet updated = (BitSet) categories.clone();
+        updated.set(category);
+        return updated;
+    }
+
+    private static boolean fitsBitmap(Long categoryId) {
+        return categoryId != null && categoryId >= 0 && categoryId < MAX_BITMAP_CATEGORY_ID;
+    }
+}
@@ -2,8 +2,6 @@ package com.mindquest.service;
 
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
 import com.mindquest.dto.request.GoogleLoginRequest;
 import com.mindquest.dto.request.LoginRequest;
 import com.mindquest.dto.request.RegisterRequest;
@@ -14,6 +12,8 @@ import com.mindquest.exception.BadRequestException;
 import com.mindquest.exception.ResourceNotFoundException;
 import com.mindquest.repository.UserRepository;
 import com.mindquest.security.JwtTokenProvider;
+import com.mindquest.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -27,7 +27,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -47,8 +46,8 @@ public class AuthService {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
-    @Value("${spring.security.oauth2.client.registration.google.client-id}")
-    private String googleClientId;
+    @Autowired
+    private GoogleIdTokenVerifier googleIdTokenVerifier;
 
     @Value("${app.admin-emails}")
     private List<String> adminEmails;
@@ -89,13 +88,10 @@ public class AuthService {
 
         User result = userRepository.save(user);
 
-        // Authenticate user
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        signUpRequest.getEmail(),
-                        signUpRequest.getPassword()
-                )
-        );
+        // Issue tokens from the saved user; re-authenticating would just verify the hash we computed
+        UserPrincipal userPrincipal = UserPrincipal.create(result);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                userPrincipal, null, userPrincipal.getAuthorities());
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
@@ -119,8 +115,11 @@ public class AuthService {
         String jwt = tokenProvider.generateToken(authentication);
         String refreshToken = tokenProvider.generateRefreshToken(authentication);
 
-        User user = userRepository.findByEmail(loginRequest.getEmail())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", loginRequest.getEmail()));
+        // The user was already loaded by the authentication provider in this transaction,
+        // so looking it up by id is served from the persistence context
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        User user = userRepository.findById(userPrincipal.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userPrincipal.getId()));
 
         // Update last active
         user.setLastActive(LocalDateTime.now());
@@ -132,12 +131,7 @@ public class AuthService {
 
     public AuthResponse authenticateWithGoogle(GoogleLoginRequest googleLoginRequest) {
         try {
-            GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(
-                    new NetHttpTransport(), GsonFactory.getDefaultInstance())
-                    .setAudience(Collections.singletonList(googleClientId))
-                    .build();
-
-            GoogleIdToken idToken = verifier.verify(googleLoginRequest.getGoogleToken());
+            GoogleIdToken idToken = googleIdTokenVerifier.verify(googleLoginRequest.getGoogleToken());
             if (idToken != null) {
                 GoogleIdToken.Payload payload = idToken.getPayload();
                 String email = payload.getEmail();
@@ -187,8 +181,9 @@ public class AuthService {
                 }
 
                 // Create authentication token
+                UserPrincipal userPrincipal = UserPrincipal.create(user);
                 Authentication authentication = new UsernamePasswordAuthenticationToken(
-                        user.getEmail(), null, Collections.emptyList());
+                        userPrincipal, null, userPrincipal.getAuthorities());
                 SecurityContextHolder.getContext().setAuthentication(authentication);
 
                 String jwt = tokenProvider.generateToken(authentication);
@@ -205,13 +200,15 @@ public class AuthService {
     }
 
     public AuthResponse refreshToken(String refreshToken) {
-        if (tokenProvider.validateToken(refreshToken)) {
-            Long userId = tokenProvider.getUserIdFromJWT(refreshToken);
+        Claims claims = tokenProvider.parse(refreshToken);
+        if (claims != null) {
+            Long userId = tokenProvider.getUserId(claims);
             User user = userRepository.findById(userId)
                     .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
+            UserPrincipal userPrincipal = UserPrincipal.create(user);
             Authentication authentication = new UsernamePasswordAuthenticationToken(
-                    user.getEmail(), null, Collections.emptyList());
+                    userPrincipal, null, userPrincipal.getAuthorities());
 
             String newJwt = tokenProvider.generateToken(authentication);
             String newRefreshToken = tokenProvider.generateRefreshToken(authentication);
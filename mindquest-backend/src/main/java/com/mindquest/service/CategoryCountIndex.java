@@ -0,0 +1,150 @@
+package com.mindquest.service;
+
+import com.mindquest.repository.CommunityPostRepository;
+import com.mindquest.repository.QuestionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class CategoryCountIndex {
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private CommunityPostRepository postRepository;
+
+    // categoryId -> number of questions / posts; read without locking, replaced whole by refresh()
+    private volatile ConcurrentMap<Long, AtomicLong> questionCounts = new ConcurrentHashMap<>();
+    private volatile ConcurrentMap<Long, AtomicLong> postCounts = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    // Guards adjustments against the map swap. While a refresh is querying, adjustments are also journaled
+    // and replayed onto the new maps, so changes that commit during the query are not lost with the old maps.
+    private final Object lock = new Object();
+    private Map<Long, Long> questionJournal;
+    private Map<Long, Long> postJournal;
+    private long generation;
+
+    public long getQuestionCount(Long categoryId) {
+        ensureLoaded();
+        return get(questionCounts, categoryId);
+    }
+
+    public long getPostCount(Long categoryId) {
+        ensureLoaded();
+        return get(postCounts, categoryId);
+    }
+
+    // Called after the change committed. When nothing is loaded the change is not applied: the next load
+    // counts it from the database, and adding it on top would count it twice.
+    public void questionAdded(Long categoryId) {
+        synchronized (lock) {
+            adjust(questionCounts, questionJournal, categoryId, 1);
+        }
+    }
+
+    public void questionRemoved(Long categoryId) {
+        synchronized (lock) {
+            adjust(questionCounts, questionJournal, categoryId, -1);
+        }
+    }
+
+    public void postAdded(Long categoryId) {
+        synchronized (lock) {
+            adjust(postCounts, postJournal, categoryId, 1);
+        }
+    }
+
+    public void invalidate() {
+        synchronized (lock) {
+            generation++;
+            loaded = false;
+        }
+    }
+
+    // Periodic resync from the grouped counts corrects any drift from missed increments
+    @Scheduled(fixedDelayString = "${app.category-counts.refresh-interval-ms:300000}",
+               initialDelayString = "${app.category-counts.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        long startedAt;
+        synchronized (lock) {
+            startedAt = generation;
+            questionJournal = new HashMap<>();
+            postJournal = new HashMap<>();
+        }
+
+        List<Object[]> questionRows;
+        List<Object[]> postRows;
+        try {
+            questionRows = questionRepository.countGroupedByCategory();
+            postRows = postRepository.countGroupedByCategory();
+        } catch (RuntimeException ex) {
+            synchronized (lock) {
+                questionJournal = null;
+                postJournal = null;
+            }
+            throw ex;
+        }
+
+        synchronized (lock) {
+            ConcurrentMap<Long, AtomicLong> questions = toCounts(questionRows);
+            ConcurrentMap<Long, AtomicLong> posts = toCounts(postRows);
+            questionJournal.forEach((categoryId, delta) -> add(questions, categoryId, delta));
+            postJournal.forEach((categoryId, delta) -> add(posts, categoryId, delta));
+            questionCounts = questions;
+            postCounts = posts;
+            questionJournal = null;
+            postJournal = null;
+            // An invalidation during the query means the counts may predate it, so the next read loads again
+            loaded = generation == startedAt;
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    refresh();
+                }
+            }
+        }
+    }
+
+    private static long get(ConcurrentMap<Long, AtomicLong> counts, Long categoryId) {
+        AtomicLong count = counts.get(categoryId);
+        return count != null ? count.get() : 0L;
+    }
+
+    // Caller holds lock
+    private void adjust(ConcurrentMap<Long, AtomicLong> counts, Map<Long, Long> journal, Long categoryId, long delta) {
+        if (journal != null) {
+            journal.merge(categoryId, delta, Long::sum);
+        }
+        if (loaded) {
+            add(counts, categoryId, delta);
+        }
+    }
+
+    private static void add(ConcurrentMap<Long, AtomicLong> counts, Long categoryId, long delta) {
+        counts.computeIfAbsent(categoryId, id -> new AtomicLong()).addAndGet(delta);
+    }
+
+    private static ConcurrentMap<Long, AtomicLong> toCounts(List<Object[]> rows) {
+        ConcurrentMap<Long, AtomicLong> counts = new ConcurrentHashMap<>();
+        for (Object[] row : rows) {
+            if (row[0] != null) {
+                counts.put((Long) row[0], new AtomicLong(((Number) row[1]).longValue()));
+            }
+        }
+        return counts;
+    }
+}
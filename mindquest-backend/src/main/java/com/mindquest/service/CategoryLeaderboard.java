@@ -0,0 +1,114 @@
+package com.mindquest.service;
+
+import com.mindquest.entity.QuizAttempt;
+import com.mindquest.repository.QuizAttemptRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+// Ranks the users who took each category by score, fastest time first on ties. A board is loaded from
+// quiz_attempts the first time its category is asked for and then kept current from submissions.
+@Component
+public class CategoryLeaderboard {
+
+    public static final class Position {
+        private final long rank;
+        private final long players;
+
+        private Position(long rank, long players) {
+            this.rank = rank;
+            this.players = players;
+        }
+
+        public long getRank() {
+            return rank;
+        }
+
+        public long getPlayers() {
+            return players;
+        }
+
+        // Share of players ranked at or below this position
+        public double getPercentile() {
+            return players > 0 ? (players - rank + 1) * 100.0 / players : 0.0;
+        }
+    }
+
+    private static final class Board {
+        private final RankedSet rankings = new RankedSet();
+        private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+    }
+
+    @Autowired
+    private QuizAttemptRepository attemptRepository;
+
+    private final ConcurrentMap<Long, Board> boards = new ConcurrentHashMap<>();
+
+    // A user has a single attempt per category, so the entry written here is the same one a concurrent
+    // load would read back and applying both in either order is harmless
+    public void record(QuizAttempt attempt) {
+        long categoryId = attempt.getCategory().getId();
+        long userId = attempt.getUser().getId();
+        long score = attempt.getScore();
+        long timeSpent = attempt.getTimeSpent() != null ? attempt.getTimeSpent() : 0L;
+        AfterCommit.run(() -> {
+            Board board = boards.get(categoryId);
+            if (board != null) {
+                board.rankings.put(userId, score, timeSpent);
+            }
+        });
+    }
+
+    public List<RankedSet.Entry> getTop(Long categoryId, int limit) {
+        return board(categoryId).top(limit);
+    }
+
+    public long size(Long categoryId) {
+        return board(categoryId).size();
+    }
+
+    public Position getPosition(Long categoryId, Long userId) {
+        RankedSet rankings = board(categoryId);
+        long rank = rankings.rank(userId);
+        return rank > 0 ? new Position(rank, rankings.size()) : null;
+    }
+
+    // Where a result would land, for an attempt that has not been committed yet
+    public Position project(Long categoryId, Long userId, long score, long timeSpent) {
+        RankedSet rankings = board(categoryId);
+        long players = rankings.contains(userId) ? rankings.size() : rankings.size() + 1L;
+        return new Position(rankings.countAhead(userId, score, timeSpent) + 1, players);
+    }
+
+    private RankedSet board(Long categoryId) {
+        Board board = boards.get(categoryId);
+        if (board == null) {
+            Board created = new Board();
+            board = boards.putIfAbsent(categoryId, created);
+            if (board == null) {
+                board = created;
+                load(categoryId, created);
+            }
+        }
+        board.loaded.join();
+        return board.rankings;
+    }
+
+    private void load(Long categoryId, Board board) {
+        try (Stream<Object[]> rows = attemptRepository.streamScoresByCategoryId(categoryId)) {
+            rows.forEach(row -> board.rankings.putIfAbsent((Long) row[0],
+                    row[1] != null ? ((Integer) row[1]).longValue() : 0L,
+                    row[2] != null ? ((Integer) row[2]).longValue() : 0L));
+            board.loaded.complete(null);
+        } catch (RuntimeException ex) {
+            boards.remove(categoryId, board);
+            board.loaded.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+}
@@ -2,11 +2,14 @@ package com.mindquest.service;
 
 import com.mindquest.dto.request.CreatePostRequest;
 import com.mindquest.dto.response.CommunityStatsResponse;
+import com.mindquest.dto.response.CursorPage;
 import com.mindquest.dto.response.CommunityPostResponse;
 import com.mindquest.dto.response.QuizCategoryResponse;
+import com.mindquest.dto.response.UserResponse;
 import com.mindquest.entity.CommunityPost;
 import com.mindquest.entity.QuizCategory;
 import com.mindquest.entity.User;
+import com.mindquest.exception.BadRequestException;
 import com.mindquest.exception.ResourceNotFoundException;
 import com.mindquest.repository.CommunityPostRepository;
 import com.mindquest.repository.QuizCategoryRepository;
@@ -20,7 +23,12 @@ import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,6 +44,15 @@ public class CommunityService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CategoryCountIndex categoryCountIndex;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
     public CommunityStatsResponse getCommunityStats() {
         Long totalPosts = postRepository.countAllPosts();
         Long activeUsers = userRepository.countActiveUsers();
@@ -43,15 +60,13 @@ public class CommunityService {
         // Get top categories by post count
         List<QuizCategory> categories = categoryRepository.findAll();
         List<CommunityStatsResponse.CategoryStats> categoryStats = categories.stream()
+                .map(category -> new CommunityStatsResponse.CategoryStats(
+                    "cat_" + category.getId(),
+                    category.getTitle(),
+                    (int) categoryCountIndex.getPostCount(category.getId())
+                ))
+                .sorted(Comparator.comparingInt(CommunityStatsResponse.CategoryStats::getPostCount).reversed())
                 .limit(5)
-                .map(category -> {
-                    Long postCount = postRepository.countByCategory(category);
-                    return new CommunityStatsResponse.CategoryStats(
-                        "cat_" + category.getId(),
-                        category.getTitle(),
-                        postCount.intValue()
-                    );
-                })
                 .collect(Collectors.toList());
 
         return new CommunityStatsResponse(
@@ -78,6 +93,23 @@ public class CommunityService {
         return posts.map(this::convertToPostResponse);
     }
 
+    public CursorPage<CommunityPostResponse> getCategoryPosts(Long categoryId, String sort, String cursor, int size) {
+        // Cursors encode (createdAt, id), which only orders the feed for the recent sort
+        if (sort != null && !sort.equals("recent")) {
+            throw new BadRequestException("Cursor paging is only supported for recent posts");
+        }
+
+        QuizCategory category = categoryRepository.findById(categoryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
+
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<CommunityPost> posts = postRepository.findByCategoryBefore(
+            category, position.getCreatedAt(), position.getId(), KeysetCursor.limit(size));
+
+        return KeysetCursor.page(posts, size, CommunityPost::getCreatedAt, CommunityPost::getId,
+            this::convertToPostResponse);
+    }
+
     public CommunityPostResponse createPost(Long categoryId, CreatePostRequest request, Authentication authentication) {
         QuizCategory category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
@@ -92,19 +124,34 @@ public class CommunityService {
         }
 
         post = postRepository.save(post);
+        AfterCommit.run(() -> categoryCountIndex.postAdded(categoryId));
+        responseCache.invalidate(ResponseCache.COMMUNITY_STATS, ResponseCache.COMMUNITY_CATEGORIES);
         return convertToPostResponse(post);
     }
 
-    public List<User> getExperts() {
+    // Returned as DTOs because the list is cached and shared across requests, which entities must never be
+    public List<UserResponse> getExperts() {
         // Get top users by points (experts)
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<User> topUsers = userRepository.findTopUsersByPoints(pageable);
-        
-        return topUsers.getContent();
+        if (!leaderboardService.isReady()) {
+            Pageable pageable = PageRequest.of(0, 10);
+            return userRepository.findTopUsersByPoints(pageable).getContent().stream()
+                    .map(UserResponse::new)
+                    .collect(Collectors.toList());
+        }
+
+        List<Long> topUserIds = leaderboardService.getTopUserIds(10);
+        Map<Long, User> users = userRepository.findAllById(topUserIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        return topUserIds.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .map(UserResponse::new)
+                .collect(Collectors.toList());
     }
 
     private QuizCategoryResponse convertToCategoryResponse(QuizCategory category) {
-        Long postCount = postRepository.countByCategory(category);
+        long postCount = categoryCountIndex.getPostCount(category.getId());
         
         return new QuizCategoryResponse(
             "cat_" + category.getId(),
@@ -115,10 +162,11 @@ public class CommunityService {
             category.getColor(),
             category.getBgColor(),
             category.getBorderColor(),
-            postCount.intValue(), // Using post count instead of question count
-            category.getSubcategories(),
-            category.getModerators(),
-            category.getRules()
+            (int) postCount, // Using post count instead of question count
+            // Plain copies, since the cached response is serialized long after this session has closed
+            new ArrayList<>(category.getSubcategories()),
+            new ArrayList<>(category.getModerators()),
+            new ArrayList<>(category.getRules())
         );
     }
 
@@ -0,0 +1,33 @@
+package com.mindquest.service;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {}
+
+    // Whether the failure was a violation of the named constraint rather than of any other one
+    public static boolean isViolationOf(DataIntegrityViolationException ex, String constraintName) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException
+                    && names(((ConstraintViolationException) cause).getConstraintName(), constraintName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Postgres reports the bare constraint name; H2 reports the backing index ("<name>_INDEX_x") inside a longer message
+    private static boolean names(String reported, String constraintName) {
+        if (reported == null) {
+            return false;
+        }
+        Pattern pattern = Pattern.compile("(^|[^a-z0-9_])" + Pattern.quote(constraintName.toLowerCase(Locale.ROOT))
+                + "(_index_[a-z0-9]+)?($|[^a-z0-9_])");
+        return pattern.matcher(reported.toLowerCase(Locale.ROOT)).find();
+    }
+}
@@ -0,0 +1,25 @@
+package com.mindquest.service;
+
+import com.mindquest.entity.CryptoReward;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CryptoRewardChangeListener {
+
+    // Lazy so Hibernate can build this listener before the repositories exist
+    @Autowired
+    @Lazy
+    private RewardCatalog rewardCatalog;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onRewardChanged(CryptoReward reward) {
+        AfterCommit.run(rewardCatalog::reload);
+    }
+}
@@ -0,0 +1,84 @@
+package com.mindquest.service;
+
+import com.mindquest.dto.response.CursorPage;
+import com.mindquest.exception.BadRequestException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Opaque (createdAt, id) position for newest-first keyset paging. A blank cursor means the first page.
+public final class KeysetCursor {
+
+    private static final LocalDateTime FIRST_PAGE_CREATED_AT = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    private KeysetCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new KeysetCursor(FIRST_PAGE_CREATED_AT, Long.MAX_VALUE);
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            if (separator < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new KeysetCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new BadRequestException("Invalid cursor", ex);
+        }
+    }
+
+    public static String encode(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // One extra row is fetched to learn whether another page exists without a count query
+    public static Pageable limit(int size) {
+        if (size < 1) {
+            throw new BadRequestException("Page size must be at least 1");
+        }
+        return PageRequest.of(0, size + 1);
+    }
+
+    public static <E, T> CursorPage<T> page(List<E> rows, int size,
+                                            Function<E, LocalDateTime> createdAt,
+                                            Function<E, Long> id,
+                                            Function<E, T> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            E last = pageRows.get(pageRows.size() - 1);
+            nextCursor = encode(createdAt.apply(last), id.apply(last));
+        }
+
+        List<T> content = pageRows.stream().map(mapper).collect(Collectors.toList());
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+}
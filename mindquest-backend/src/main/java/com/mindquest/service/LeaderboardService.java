@@ -0,0 +1,140 @@
+package com.mindquest.service;
+
+import com.mindquest.dto.response.LeaderboardEntryResponse;
+import com.mindquest.dto.response.LeaderboardResponse;
+import com.mindquest.entity.User;
+import com.mindquest.exception.BadRequestException;
+import com.mindquest.repository.UserRepository;
+import com.mindquest.security.UserPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Keeps every user ranked by points in memory so top-N, rank and neighbour lookups never sort the users table
+@Service
+@Transactional(readOnly = true)
+public class LeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WindowedLeaderboard windowedLeaderboard;
+
+    private final RankedSet rankings = new RankedSet();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        // putIfAbsent keeps any total published by a commit that raced the stream, which is never older
+        try (Stream<Object[]> rows = userRepository.streamPoints()) {
+            rows.forEach(row -> rankings.putIfAbsent((Long) row[0], row[1] != null ? (Long) row[1] : 0L, 0));
+        }
+        ready = true;
+        logger.info("Leaderboard loaded {} users in {} ms", rankings.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Publishes the user's new points total once the transaction that wrote it commits
+    public void pointsChanged(Long userId, long totalPoints) {
+        AfterCommit.run(() -> rankings.put(userId, totalPoints, 0));
+    }
+
+    // 0 until the rebuild has finished: a rank from the partial set would be wrong, and an entry added here
+    // would be one the rebuild's putIfAbsent then keeps
+    public long getRank(User user) {
+        if (!ready) {
+            return 0;
+        }
+        rankings.putIfAbsent(user.getId(), user.getPoints() != null ? user.getPoints() : 0L, 0);
+        return rankings.rank(user.getId());
+    }
+
+    public List<Long> getTopUserIds(int limit) {
+        return rankings.top(limit).stream()
+                .map(RankedSet.Entry::getId)
+                .collect(Collectors.toList());
+    }
+
+    public LeaderboardResponse getTop(Authentication authentication, String window, int limit) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        RankedSet board = boardFor(window);
+        List<RankedSet.Entry> entries = board.top(clampLimit(limit));
+        return new LeaderboardResponse(userRank(board, userPrincipal.getId()), null, (long) board.size(), toResponses(entries));
+    }
+
+    public LeaderboardResponse getAround(Authentication authentication, String window, int radius) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        RankedSet board = boardFor(window);
+        if (board == rankings && ready && !rankings.contains(userPrincipal.getId())) {
+            userRepository.findById(userPrincipal.getId()).ifPresent(this::getRank);
+        }
+
+        List<RankedSet.Entry> entries = board.around(userPrincipal.getId(), clampLimit(radius));
+        return new LeaderboardResponse(userRank(board, userPrincipal.getId()), null, (long) board.size(), toResponses(entries));
+    }
+
+    // All-time points unless a daily, weekly or monthly window is asked for
+    private RankedSet boardFor(String window) {
+        if (window == null || window.isBlank() || window.equalsIgnoreCase("all")) {
+            return rankings;
+        }
+
+        WindowedLeaderboard.Window timeWindow;
+        try {
+            timeWindow = WindowedLeaderboard.Window.valueOf(window.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Unknown leaderboard window: " + window);
+        }
+        return windowedLeaderboard.current(timeWindow);
+    }
+
+    private Long userRank(RankedSet board, Long userId) {
+        long rank = board.rank(userId);
+        return rank > 0 ? rank : null;
+    }
+
+    public List<LeaderboardEntryResponse> toResponses(List<RankedSet.Entry> entries) {
+        List<Long> ids = entries.stream().map(RankedSet.Entry::getId).collect(Collectors.toList());
+        Map<Long, User> users = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        return entries.stream()
+                .filter(entry -> users.containsKey(entry.getId()))
+                .map(entry -> {
+                    User user = users.get(entry.getId());
+                    return new LeaderboardEntryResponse(
+                            "user_" + user.getId(),
+                            user.getName(),
+                            user.getAvatar(),
+                            entry.getPrimary(),
+                            entry.getRank()
+                    );
+                })
+                .collect(Collectors.toList());
+    }
+
+    private int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -0,0 +1,8 @@
+package com.mindquest.service;
+
+// Sends a reward payout to the user's wallet. The redemption id is passed as the idempotency key, so an
+// implementation must return the original transaction id if the same redemption is paid out again.
+public interface PayoutGateway {
+
+    String payout(Long redemptionId, String walletAddress, String value);
+}
@@ -0,0 +1,122 @@
+package com.mindquest.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Re-derives each user's lifetime earned/redeemed totals from points_transactions one id range at a time
+// and corrects any row that has drifted from the ledger
+@Component
+public class PointsLedgerReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointsLedgerReconciler.class);
+
+    // Locking the chunk's user rows makes awards in flight either finish before the sums are taken or wait until after
+    private static final String LOCK_USERS_SQL =
+            "SELECT id, COALESCE(total_earned, 0), COALESCE(total_redeemed, 0) FROM users " +
+            "WHERE id > ? ORDER BY id LIMIT ? FOR UPDATE";
+
+    private static final String LEDGER_SUMS_SQL =
+            "SELECT user_id, " +
+            "COALESCE(SUM(CASE WHEN type = 'EARNED' THEN points ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN type = 'REDEEMED' THEN points WHEN type = 'REFUNDED' THEN -points ELSE 0 END), 0) " +
+            "FROM points_transactions WHERE user_id BETWEEN ? AND ? GROUP BY user_id";
+
+    private static final String FIX_SQL = "UPDATE users SET total_earned = ?, total_redeemed = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.points-reconciliation.chunk-size:1000}")
+    private int chunkSize;
+
+    private Counter driftCounter;
+
+    @PostConstruct
+    public void init() {
+        driftCounter = Counter.builder("points.reconciliation.drift")
+                .description("Users whose materialized point totals disagreed with the ledger")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${app.points-reconciliation.initial-delay-ms:60000}",
+               fixedDelayString = "${app.points-reconciliation.interval-ms:3600000}")
+    public synchronized void reconcile() {
+        long start = System.currentTimeMillis();
+        long lastId = 0L;
+        long checked = 0L;
+        long drifted = 0L;
+
+        while (true) {
+            long afterId = lastId;
+            long[] result = transactionTemplate.execute(status -> reconcileChunk(afterId));
+            if (result == null || result[0] == 0) {
+                break;
+            }
+            checked += result[0];
+            drifted += result[1];
+            lastId = result[2];
+        }
+
+        if (drifted > 0) {
+            logger.warn("Points reconciliation corrected {} of {} users in {} ms",
+                    drifted, checked, System.currentTimeMillis() - start);
+        } else {
+            logger.debug("Points reconciliation checked {} users in {} ms", checked, System.currentTimeMillis() - start);
+        }
+    }
+
+    // Returns {users checked, users corrected, last user id}
+    private long[] reconcileChunk(long afterId) {
+        List<long[]> users = jdbcTemplate.query(LOCK_USERS_SQL,
+                (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2), rs.getLong(3)},
+                afterId, chunkSize);
+        if (users.isEmpty()) {
+            return new long[] {0, 0, afterId};
+        }
+
+        long firstId = users.get(0)[0];
+        long lastId = users.get(users.size() - 1)[0];
+        Map<Long, long[]> sums = new HashMap<>();
+        jdbcTemplate.query(LEDGER_SUMS_SQL,
+                rs -> {
+                    sums.put(rs.getLong(1), new long[] {rs.getLong(2), rs.getLong(3)});
+                },
+                firstId, lastId);
+
+        List<Object[]> fixes = new ArrayList<>();
+        for (long[] user : users) {
+            long[] ledger = sums.getOrDefault(user[0], new long[] {0, 0});
+            if (ledger[0] != user[1] || ledger[1] != user[2]) {
+                logger.info("User {} totals drifted: earned {} -> {}, redeemed {} -> {}",
+                        user[0], user[1], ledger[0], user[2], ledger[1]);
+                fixes.add(new Object[] {ledger[0], ledger[1], user[0]});
+            }
+        }
+
+        if (!fixes.isEmpty()) {
+            jdbcTemplate.batchUpdate(FIX_SQL, fixes);
+            driftCounter.increment(fixes.size());
+        }
+        return new long[] {users.size(), fixes.size(), lastId};
+    }
+}
@@ -1,9 +1,11 @@
 package com.mindquest.service;
 
+import com.mindquest.dto.response.CursorPage;
 import com.mindquest.dto.response.PointsSummaryResponse;
 import com.mindquest.dto.response.PointsHistoryResponse;
 import com.mindquest.entity.PointsTransaction;
 import com.mindquest.entity.User;
+import com.mindquest.exception.BadRequestException;
 import com.mindquest.repository.PointsTransactionRepository;
 import com.mindquest.repository.UserRepository;
 import com.mindquest.security.UserPrincipal;
@@ -28,13 +30,20 @@ public class PointsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private WindowedLeaderboard windowedLeaderboard;
+
     public PointsSummaryResponse getPointsSummary(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         User user = userRepository.findById(userPrincipal.getId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        Long totalEarned = transactionRepository.getTotalEarnedPointsByUser(user);
-        Long totalRedeemed = transactionRepository.getTotalRedeemedPointsByUser(user);
+        // Lifetime totals are materialized on the user row rather than summed from the ledger
+        Long totalEarned = user.getTotalEarned();
+        Long totalRedeemed = user.getTotalRedeemed();
         
         List<PointsTransaction> recentTransactions = transactionRepository.findRecentByUser(
             user, PageRequest.of(0, 5));
@@ -68,20 +77,41 @@ public class PointsService {
         return transactions.map(this::convertToHistoryResponse);
     }
 
+    public CursorPage<PointsHistoryResponse> getPointsHistory(Authentication authentication, String type, String cursor, int size) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        User user = userRepository.findById(userPrincipal.getId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        PointsTransaction.TransactionType transactionType = type != null ? 
+            PointsTransaction.TransactionType.valueOf(type.toUpperCase()) : null;
+
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<PointsTransaction> transactions = transactionRepository.findByUserWithFiltersBefore(
+            user, transactionType, position.getCreatedAt(), position.getId(), KeysetCursor.limit(size));
+
+        return KeysetCursor.page(transactions, size, PointsTransaction::getCreatedAt, PointsTransaction::getId,
+            this::convertToHistoryResponse);
+    }
+
     public void awardPoints(User user, Long points, String source, String description) {
         // Create transaction record
         PointsTransaction transaction = new PointsTransaction(
             user, PointsTransaction.TransactionType.EARNED, points, source, description);
         transactionRepository.save(transaction);
-
-        // Update user points
-        user.setPoints(user.getPoints() + points);
-        userRepository.save(user);
+        windowedLeaderboard.recordEarned(transaction);
+
+        // Credit in one UPDATE so concurrent awards to the same user can't overwrite each other,
+        // then read the new total back while this transaction still holds the row lock
+        userRepository.addPoints(user.getId(), points);
+        user.setPoints(userRepository.findPointsById(user.getId()));
+        user.setTotalEarned((user.getTotalEarned() != null ? user.getTotalEarned() : 0L) + points);
+        leaderboardService.pointsChanged(user.getId(), user.getPoints());
     }
 
     public void deductPoints(User user, Long points, String source, String description) {
-        if (user.getPoints() < points) {
-            throw new RuntimeException("Insufficient points");
+        // The balance check and the debit are one conditional UPDATE, so two deductions can't both pass the check
+        if (userRepository.deductPoints(user.getId(), points) == 0) {
+            throw new BadRequestException("Insufficient points");
         }
 
         // Create transaction record
@@ -89,9 +119,20 @@ public class PointsService {
             user, PointsTransaction.TransactionType.REDEEMED, points, source, description);
         transactionRepository.save(transaction);
 
-        // Update user points
-        user.setPoints(user.getPoints() - points);
-        userRepository.save(user);
+        user.setPoints(userRepository.findPointsById(user.getId()));
+        user.setTotalRedeemed((user.getTotalRedeemed() != null ? user.getTotalRedeemed() : 0L) + points);
+        leaderboardService.pointsChanged(user.getId(), user.getPoints());
+    }
+
+    // Gives back the points of a redemption that could not be paid out. The caller fences this so it runs at most
+    // once per redemption, in the same transaction as the status change.
+    public void refundPoints(Long userId, Long points, String source, String description) {
+        PointsTransaction transaction = new PointsTransaction(
+            userRepository.getReferenceById(userId), PointsTransaction.TransactionType.REFUNDED, points, source, description);
+        transactionRepository.save(transaction);
+
+        userRepository.refundPoints(userId, points);
+        leaderboardService.pointsChanged(userId, userRepository.findPointsById(userId));
     }
 
     private PointsHistoryResponse convertToHistoryResponse(PointsTransaction transaction) {
@@ -0,0 +1,76 @@
+package com.mindquest.service;
+
+import com.mindquest.entity.Question;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+@Component
+public class QuestionChangeListener {
+
+    // Lazy so Hibernate can build this listener before the repositories exist
+    @Autowired
+    @Lazy
+    private QuestionDeckIndex deckIndex;
+
+    @Autowired
+    @Lazy
+    private CategoryCountIndex categoryCountIndex;
+
+    @Autowired
+    @Lazy
+    private ResponseCache responseCache;
+
+    @Autowired
+    @Lazy
+    private AnswerKeyCache answerKeyCache;
+
+    @PostPersist
+    public void onQuestionAdded(Question question) {
+        Long categoryId = categoryIdOf(question);
+        if (categoryId != null) {
+            AfterCommit.run(() -> {
+                deckIndex.invalidate(categoryId);
+                categoryCountIndex.questionAdded(categoryId);
+            });
+            responseCache.invalidate(ResponseCache.QUIZ_CATEGORIES);
+        }
+    }
+
+    @PostRemove
+    public void onQuestionRemoved(Question question) {
+        Long categoryId = categoryIdOf(question);
+        if (categoryId != null) {
+            AfterCommit.run(() -> {
+                deckIndex.invalidate(categoryId);
+                categoryCountIndex.questionRemoved(categoryId);
+            });
+            responseCache.invalidate(ResponseCache.QUIZ_CATEGORIES);
+        }
+        invalidateAnswerKey(question.getId());
+    }
+
+    @PostUpdate
+    public void onQuestionUpdated(Question question) {
+        // The category or active flag may have changed, so drop every deck and recount
+        AfterCommit.run(() -> {
+            deckIndex.invalidateAll();
+            categoryCountIndex.invalidate();
+        });
+        responseCache.invalidate(ResponseCache.QUIZ_CATEGORIES);
+        invalidateAnswerKey(question.getId());
+    }
+
+    // Dropped now and again after commit, so a grader that reads the old row in between can't keep it cached
+    private void invalidateAnswerKey(Long questionId) {
+        answerKeyCache.invalidate(questionId);
+        AfterCommit.run(() -> answerKeyCache.invalidate(questionId));
+    }
+
+    private static Long categoryIdOf(Question question) {
+        return question.getCategory() != null ? question.getCategory().getId() : null;
+    }
+}
@@ -0,0 +1,93 @@
+package com.mindquest.service;
+
+import com.mindquest.repository.QuestionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class QuestionDeckIndex {
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    // categoryId -> ids of the active questions in that category
+    private final ConcurrentMap<Long, long[]> decks = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public List<Long> sample(Long categoryId, int count) {
+        long[] deck = getDeck(categoryId);
+        int n = deck.length;
+        int k = Math.min(count, n);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        // Floyd's algorithm: k distinct positions in O(k) without copying or shuffling the deck
+        int[] picked = new int[k];
+        int size = 0;
+        for (int j = n - k; j < n; j++) {
+            int t = random.nextInt(j + 1);
+            picked[size] = contains(picked, size, t) ? j : t;
+            size++;
+        }
+
+        // Floyd's picks are not in random order, so shuffle the k picks themselves
+        for (int i = k - 1; i > 0; i--) {
+            int swap = random.nextInt(i + 1);
+            int tmp = picked[i];
+            picked[i] = picked[swap];
+            picked[swap] = tmp;
+        }
+
+        List<Long> ids = new ArrayList<>(k);
+        for (int position : picked) {
+            ids.add(deck[position]);
+        }
+        return ids;
+    }
+
+    public void invalidate(Long categoryId) {
+        generation.incrementAndGet();
+        decks.remove(categoryId);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        decks.clear();
+    }
+
+    private long[] getDeck(Long categoryId) {
+        long[] deck = decks.get(categoryId);
+        if (deck != null) {
+            return deck;
+        }
+
+        long loadedAt = generation.get();
+        deck = questionRepository.findActiveIdsByCategoryId(categoryId).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+
+        // Only publish the deck if no question changed while it was loading
+        if (generation.get() == loadedAt) {
+            decks.putIfAbsent(categoryId, deck);
+            if (generation.get() != loadedAt) {
+                decks.remove(categoryId, deck);
+            }
+        }
+        return deck;
+    }
+
+    private static boolean contains(int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,121 @@
+package com.mindquest.service;
+
+import com.mindquest.entity.QuizAnswer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class QuestionStatsAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuestionStatsAggregator.class);
+
+    // Folds the pending deltas into the running averages; every right-hand side sees the old row values
+    private static final String FLUSH_SQL =
+            "UPDATE questions SET " +
+            "average_score = (COALESCE(average_score, 0) * COALESCE(times_used, 0) + ?) / (COALESCE(times_used, 0) + ?), " +
+            "correct_percentage = (COALESCE(correct_percentage, 0) * COALESCE(times_used, 0) + ?) / (COALESCE(times_used, 0) + ?), " +
+            "times_used = COALESCE(times_used, 0) + ? " +
+            "WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentMap<Long, QuestionStats> stats = new ConcurrentHashMap<>();
+
+    public void record(List<QuizAnswer> answers) {
+        // Copy what we need now; the counters are only bumped if the submit commits
+        int size = answers.size();
+        long[] questionIds = new long[size];
+        boolean[] correct = new boolean[size];
+        int[] points = new int[size];
+        for (int i = 0; i < size; i++) {
+            QuizAnswer answer = answers.get(i);
+            questionIds[i] = answer.getQuestion().getId();
+            correct[i] = Boolean.TRUE.equals(answer.getCorrect());
+            points[i] = answer.getPoints() != null ? answer.getPoints() : 0;
+        }
+
+        AfterCommit.run(() -> {
+            for (int i = 0; i < size; i++) {
+                QuestionStats questionStats = stats.computeIfAbsent(questionIds[i], id -> new QuestionStats());
+                questionStats.answered.increment();
+                if (correct[i]) {
+                    questionStats.correct.increment();
+                }
+                questionStats.points.add(points[i]);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.question-stats.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        List<Long> ids = new ArrayList<>();
+        List<long[]> deltas = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>();
+
+        for (Map.Entry<Long, QuestionStats> entry : stats.entrySet()) {
+            QuestionStats questionStats = entry.getValue();
+            long points = questionStats.points.sum() - questionStats.flushedPoints;
+            long correct = questionStats.correct.sum() - questionStats.flushedCorrect;
+            long answered = questionStats.answered.sum() - questionStats.flushedAnswered;
+            if (answered == 0) {
+                continue;
+            }
+
+            ids.add(entry.getKey());
+            deltas.add(new long[] {answered, correct, points});
+            batch.add(new Object[] {points, answered, correct * 100, answered, answered, entry.getKey()});
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+        } catch (DataAccessException ex) {
+            // Deltas stay pending and are retried on the next flush
+            logger.error("Failed to flush statistics for {} questions", batch.size(), ex);
+            return;
+        }
+
+        // The adders only ever grow, so advancing the watermarks never loses a concurrent update
+        for (int i = 0; i < ids.size(); i++) {
+            QuestionStats questionStats = stats.get(ids.get(i));
+            long[] delta = deltas.get(i);
+            questionStats.flushedAnswered += delta[0];
+            questionStats.flushedCorrect += delta[1];
+            questionStats.flushedPoints += delta[2];
+        }
+        logger.debug("Flushed statistics for {} questions", ids.size());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private static class QuestionStats {
+        final LongAdder answered = new LongAdder();
+        final LongAdder correct = new LongAdder();
+        final LongAdder points = new LongAdder();
+
+        // Only touched by flush(), which is synchronized
+        long flushedAnswered;
+        long flushedCorrect;
+        long flushedPoints;
+    }
+}
@@ -1,6 +1,8 @@
 package com.mindquest.service;
 
 import com.mindquest.dto.request.QuizSubmissionRequest;
+import com.mindquest.dto.response.CursorPage;
+import com.mindquest.dto.response.LeaderboardResponse;
 import com.mindquest.dto.response.QuizCategoryResponse;
 import com.mindquest.dto.response.QuizQuestionResponse;
 import com.mindquest.dto.response.QuizResultResponse;
@@ -11,6 +13,8 @@ import com.mindquest.exception.ResourceNotFoundException;
 import com.mindquest.repository.*;
 import com.mindquest.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -18,8 +22,14 @@ import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -39,7 +49,56 @@ public class QuizService {
     private UserRepository userRepository;
 
     @Autowired
-    private PointsService pointsService;
+    private QuestionDeckIndex questionDeckIndex;
+
+    @Autowired
+    private QuestionStatsAggregator questionStatsAggregator;
+
+    @Autowired
+    private CategoryCountIndex categoryCountIndex;
+
+    @Autowired
+    private CategoryLeaderboard categoryLeaderboard;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private AttemptedCategoryIndex attemptedCategoryIndex;
+
+    @Autowired
+    private QuizSessionTokens quizSessionTokens;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private QuizSubmissionEventRepository submissionEventRepository;
+
+    @Autowired
+    private SubmissionPipeline submissionPipeline;
+
+    @Value("${app.quiz-session.clock-tolerance-seconds:5}")
+    private long sessionClockToleranceSeconds;
+
+    // Questions for one quiz run together with the session token that has to come back on submit
+    public static final class ServedQuiz {
+        private final String token;
+        private final List<QuizQuestionResponse> questions;
+
+        private ServedQuiz(String token, List<QuizQuestionResponse> questions) {
+            this.token = token;
+            this.questions = questions;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public List<QuizQuestionResponse> getQuestions() {
+            return questions;
+        }
+    }
 
     public Page<QuizCategoryResponse> getCategories(String search, String difficulty, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
@@ -58,80 +117,129 @@ public class QuizService {
         return categories.map(this::convertToCategoryResponse);
     }
 
-    public List<QuizQuestionResponse> getQuizQuestions(Long categoryId, Authentication authentication) {
+    public ServedQuiz getQuizQuestions(Long categoryId, Authentication authentication) {
         QuizCategory category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
 
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userPrincipal.getId()));
 
         // Check if user already has an attempt for this category
-        if (attemptRepository.findByUserAndCategory(user, category).isPresent()) {
+        if (attemptedCategoryIndex.hasAttempted(userPrincipal.getId(), categoryId)) {
             throw new BadRequestException("You have already taken this quiz");
         }
 
-        // Get 10 random questions from the category
-        List<Question> questions = questionRepository.findRandomQuestionsByCategory(
-            category, PageRequest.of(0, 10));
+        // Sample 10 random question ids in memory, then load only those rows
+        List<Long> questionIds = questionDeckIndex.sample(category.getId(), 10);
 
-        if (questions.isEmpty()) {
+        if (questionIds.isEmpty()) {
             throw new BadRequestException("No questions available for this category");
         }
 
-        return questions.stream()
-                .map(this::convertToQuestionResponse)
+        Map<Long, Question> questions = questionRepository.findAllWithOptionsByIdIn(questionIds).stream()
+                .collect(Collectors.toMap(Question::getId, Function.identity()));
+
+        List<Question> served = questionIds.stream()
+                .map(questions::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        if (served.isEmpty()) {
+            throw new BadRequestException("No questions available for this category");
+        }
+
+        // The session token records exactly what was served so submitQuiz doesn't have to look it up again.
+        // The digest is taken from the same answer keys submitQuiz grades from.
+        long[] servedIds = served.stream().mapToLong(Question::getId).toArray();
+        long answerKeyDigest = answerKeyDigest(servedIds, answerKeyCache.load(servedIds));
+        String token = quizSessionTokens.issue(userPrincipal.getId(), categoryId, category.getTitle(),
+                served.stream().map(Question::getId).collect(Collectors.toList()), answerKeyDigest);
+
+        return new ServedQuiz(token, served.stream()
+                .map(this::convertToQuestionResponse)
+                .collect(Collectors.toList()));
     }
 
     public QuizResultResponse submitQuiz(Long categoryId, QuizSubmissionRequest request, Authentication authentication) {
-        QuizCategory category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
-
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userPrincipal.getId()));
+        QuizSessionTokens.Session session = quizSessionTokens.verify(
+                request.getSessionToken(), userPrincipal.getId(), categoryId);
 
         // Check if user already has an attempt for this category
-        if (attemptRepository.findByUserAndCategory(user, category).isPresent()) {
+        if (attemptedCategoryIndex.hasAttempted(userPrincipal.getId(), categoryId)) {
             throw new BadRequestException("You have already taken this quiz");
         }
 
+        // The session proves the user and category existed when the quiz was served and carries the category
+        // title, so references are enough here and neither row is read
+        User user = userRepository.getReferenceById(userPrincipal.getId());
+        QuizCategory category = categoryRepository.getReferenceById(categoryId);
+        String categoryTitle = session.getCategoryTitle() != null ? session.getCategoryTitle() : category.getTitle();
+
+        // Timing comes from the server: the clock started when the questions were served, and a client may
+        // not claim to have been faster than that beyond the configured tolerance
+        LocalDateTime completedAt = LocalDateTime.now();
+        long elapsedSeconds = (System.currentTimeMillis() - session.getStartedAtMillis()) / 1000;
+        int timeSpent = (int) Math.max(request.getTotalTimeSpent(),
+                Math.max(0L, elapsedSeconds - sessionClockToleranceSeconds));
+        int questionCount = session.getQuestionIds().length;
+
         // Create quiz attempt
         QuizAttempt attempt = new QuizAttempt(user, category);
-        attempt.setStartedAt(request.getStartedAt());
-        attempt.setCompletedAt(request.getCompletedAt());
-        attempt.setTimeSpent(request.getTotalTimeSpent());
-        attempt.setTotalQuestions(request.getAnswers().size());
+        attempt.setStartedAt(LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(session.getStartedAtMillis()), ZoneId.systemDefault()));
+        attempt.setCompletedAt(completedAt);
+        attempt.setTimeSpent(timeSpent);
+        attempt.setTotalQuestions(questionCount);
 
         // Process answers
         int correctAnswers = 0;
         long totalPoints = 0L;
 
+        // Grade from the served questions' answer keys, after making sure none of them changed
+        long[] servedIds = session.getQuestionIds();
+        long[] answerKeys = answerKeyCache.load(servedIds);
+        if (answerKeyDigest(servedIds, answerKeys) != session.getAnswerKeyDigest()) {
+            throw new BadRequestException("This quiz changed while you were taking it, please start again");
+        }
+
+        // Indexed by served position, so spotting a repeated answer boxes nothing
+        boolean[] answered = new boolean[servedIds.length];
         for (QuizSubmissionRequest.QuizAnswerRequest answerRequest : request.getAnswers()) {
-            Question question = questionRepository.findById(answerRequest.getQuestionId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Question", "id", answerRequest.getQuestionId()));
+            long questionId = answerRequest.getQuestionId();
+            int servedIndex = session.indexOf(questionId);
+            if (servedIndex < 0) {
+                throw new BadRequestException("Question " + questionId + " was not part of this quiz");
+            }
+            if (answered[servedIndex]) {
+                throw new BadRequestException("Question " + questionId + " was answered twice");
+            }
+            answered[servedIndex] = true;
+
+            long answerKey = answerKeys[servedIndex];
+            if (answerKey == AnswerKeyCache.MISSING) {
+                throw new BadRequestException("This quiz changed while you were taking it, please start again");
+            }
+            boolean correct = answerRequest.getSelectedAnswer() == AnswerKeyCache.correctAnswer(answerKey);
+            int points = AnswerKeyCache.points(answerKey);
 
-            QuizAnswer answer = new QuizAnswer(attempt, question, 
-                answerRequest.getSelectedAnswer(), answerRequest.getTimeSpent());
+            QuizAnswer answer = new QuizAnswer(attempt, questionRepository.getReferenceById(questionId),
+                answerRequest.getSelectedAnswer(), answerRequest.getTimeSpent(), correct, points);
             
             attempt.getAnswers().add(answer);
 
-            if (answer.getCorrect()) {
+            if (correct) {
                 correctAnswers++;
-                totalPoints += question.getPoints();
+                totalPoints += points;
             }
-
-            // Update question statistics
-            question.setTimesUsed(question.getTimesUsed() + 1);
-            questionRepository.save(question);
         }
 
+        // Question statistics are accumulated in memory and written behind
+        questionStatsAggregator.record(attempt.getAnswers());
+
         // Calculate score and bonuses
-        int score = (int) Math.round((double) correctAnswers / request.getAnswers().size() * 100);
+        int score = (int) Math.round((double) correctAnswers / questionCount * 100);
         
         // Time bonus (faster completion = more bonus)
-        long timeBonus = calculateTimeBonus(request.getTotalTimeSpent(), request.getAnswers().size());
+        long timeBonus = calculateTimeBonus(timeSpent, questionCount);
         
         // Perfect score bonus
         long perfectBonus = (score == 100) ? 50L : 0L;
@@ -145,16 +253,29 @@ public class QuizService {
         attempt.setPerfectBonus(perfectBonus);
         attempt.setTotalPoints(finalPoints);
 
-        attempt = attemptRepository.save(attempt);
+        // Project the standing before saving so a board loaded here never contains this uncommitted attempt
+        CategoryLeaderboard.Position position = categoryLeaderboard.project(
+                categoryId, user.getId(), score, attempt.getTimeSpent() != null ? attempt.getTimeSpent() : 0L);
 
-        // Award points to user
-        pointsService.awardPoints(user, finalPoints, "quiz_completion", 
-            "Completed quiz: " + category.getTitle());
+        // The unique (user_id, category_id) constraint settles two submissions racing past the check above
+        try {
+            attempt = attemptRepository.saveAndFlush(attempt);
+        } catch (DataIntegrityViolationException ex) {
+            if (!ConstraintViolations.isViolationOf(ex, "uk_quiz_attempts_user_category")) {
+                throw ex;
+            }
+            throw new BadRequestException("You have already taken this quiz");
+        }
+        attemptedCategoryIndex.recordAttempt(user.getId(), categoryId);
+        categoryLeaderboard.record(attempt);
 
-        // Update user level based on points
-        updateUserLevel(user);
+        // Points and any level-up are applied by the submission pipeline once this commits, from an outbox
+        // row written in the same transaction as the attempt
+        QuizSubmissionEvent event = submissionEventRepository.save(new QuizSubmissionEvent(
+            attempt.getId(), user.getId(), finalPoints, "Completed quiz: " + categoryTitle));
+        submissionPipeline.submitted(event);
 
-        return convertToResultResponse(attempt);
+        return convertToResultResponse(attempt, categoryTitle, position);
     }
 
     public Page<QuizHistoryResponse> getQuizHistory(Authentication authentication, Long categoryId, int page, int size) {
@@ -165,11 +286,41 @@ public class QuizService {
         Pageable pageable = PageRequest.of(page, size);
         Page<QuizAttempt> attempts = attemptRepository.findByUserWithFilters(user, categoryId, pageable);
 
-        return attempts.map(this::convertToHistoryResponse);
+        return attempts.map(attempt -> convertToHistoryResponse(attempt, user.getId()));
+    }
+
+    public CursorPage<QuizHistoryResponse> getQuizHistory(Authentication authentication, Long categoryId, String cursor, int size) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        User user = userRepository.findById(userPrincipal.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userPrincipal.getId()));
+
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<QuizAttempt> attempts = attemptRepository.findByUserWithFiltersBefore(
+            user, categoryId, position.getCreatedAt(), position.getId(), KeysetCursor.limit(size));
+
+        return KeysetCursor.page(attempts, size, QuizAttempt::getCreatedAt, QuizAttempt::getId,
+            attempt -> convertToHistoryResponse(attempt, user.getId()));
+    }
+
+    public LeaderboardResponse getCategoryLeaderboard(Long categoryId, Authentication authentication, int limit) {
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new ResourceNotFoundException("Category", "id", categoryId);
+        }
+
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        List<RankedSet.Entry> entries = categoryLeaderboard.getTop(categoryId, Math.max(1, Math.min(limit, 100)));
+        CategoryLeaderboard.Position position = categoryLeaderboard.getPosition(categoryId, userPrincipal.getId());
+
+        return new LeaderboardResponse(
+            position != null ? position.getRank() : null,
+            position != null ? position.getPercentile() : null,
+            categoryLeaderboard.size(categoryId),
+            leaderboardService.toResponses(entries)
+        );
     }
 
     private QuizCategoryResponse convertToCategoryResponse(QuizCategory category) {
-        Long questionCount = questionRepository.countByCategory(category);
+        long questionCount = categoryCountIndex.getQuestionCount(category.getId());
         
         return new QuizCategoryResponse(
             "cat_" + category.getId(),
@@ -180,10 +331,11 @@ public class QuizService {
             category.getColor(),
             category.getBgColor(),
             category.getBorderColor(),
-            questionCount.intValue(),
-            category.getSubcategories(),
-            category.getModerators(),
-            category.getRules()
+            (int) questionCount,
+            // Copied out of the entity: responses outlive the session that loaded them in ResponseCache
+            new ArrayList<>(category.getSubcategories()),
+            new ArrayList<>(category.getModerators()),
+            new ArrayList<>(category.getRules())
         );
     }
 
@@ -197,23 +349,26 @@ public class QuizService {
         );
     }
 
-    private QuizResultResponse convertToResultResponse(QuizAttempt attempt) {
+    private QuizResultResponse convertToResultResponse(QuizAttempt attempt, String categoryTitle,
+                                                       CategoryLeaderboard.Position position) {
         return new QuizResultResponse(
             "attempt_" + attempt.getId(),
             "quiz_" + attempt.getCategory().getId(),     // Changed: proper quiz ID string
-            attempt.getCategory().getTitle(),            // Changed: proper quiz title string
+            categoryTitle,
             attempt.getTotalQuestions(),
             attempt.getCorrectAnswers(),
             attempt.getScore(),
             attempt.getTotalPoints().intValue(),         // Changed: proper conversion from Long to int
             attempt.getCompletedAt(),
             attempt.getTimeSpent(),                      // Added: missing timeTaken parameter
-            (double)attempt.getCorrectAnswers() / attempt.getTotalQuestions() * 100  // Added: calculate accuracy
+            (double)attempt.getCorrectAnswers() / attempt.getTotalQuestions() * 100, // Added: calculate accuracy
+            position.getRank(),
+            position.getPercentile()
         );
     }
 
-    private QuizHistoryResponse convertToHistoryResponse(QuizAttempt attempt) {
-        return new QuizHistoryResponse(
+    private QuizHistoryResponse convertToHistoryResponse(QuizAttempt attempt, Long userId) {
+        QuizHistoryResponse response = new QuizHistoryResponse(
             "attempt_" + attempt.getId(),
             "cat_" + attempt.getCategory().getId(),
             attempt.getCategory().getTitle(),
@@ -222,6 +377,26 @@ public class QuizService {
             attempt.getRank(),
             attempt.getCompletedAt()
         );
+
+        // Relative standing among everyone who took the category, not just the score band
+        CategoryLeaderboard.Position position = categoryLeaderboard.getPosition(attempt.getCategory().getId(), userId);
+        if (position != null) {
+            response.setRank(position.getRank());
+            response.setPercentile(position.getPercentile());
+        }
+        return response;
+    }
+
+    // A question that no longer exists folds in under its negated id, so deleting one changes the digest
+    private long answerKeyDigest(long[] questionIds, long[] answerKeys) {
+        long digest = QuizSessionTokens.DIGEST_SEED;
+        for (int i = 0; i < questionIds.length; i++) {
+            long questionId = questionIds[i];
+            long answerKey = answerKeys[i];
+            digest = QuizSessionTokens.digest(digest, answerKey == AnswerKeyCache.MISSING ? -questionId : questionId,
+                    AnswerKeyCache.correctAnswer(answerKey), AnswerKeyCache.points(answerKey));
+        }
+        return digest;
     }
 
     private long calculateTimeBonus(int timeSpent, int questionCount) {
@@ -233,23 +408,4 @@ public class QuizService {
         }
         return 0L;
     }
-
-    private void updateUserLevel(User user) {
-        Long points = user.getPoints();
-        int newLevel = calculateLevel(points);
-        
-        if (newLevel > user.getLevel()) {
-            user.setLevel(newLevel);
-            userRepository.save(user);
-            
-            // Award level up bonus
-            pointsService.awardPoints(user, 100L, "level_up", 
-                "Level up bonus - reached level " + newLevel);
-        }
-    }
-
-    private int calculateLevel(Long points) {
-        // Level calculation: Level = floor(sqrt(points / 100)) + 1
-        return (int) Math.floor(Math.sqrt(points / 100.0)) + 1;
-    }
 }
\ No newline at end of file
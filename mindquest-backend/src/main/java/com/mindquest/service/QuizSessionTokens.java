@@ -0,0 +1,194 @@
+package com.mindquest.service;
+
+import com.mindquest.exception.BadRequestException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+// Compact HMAC-signed record of a served quiz: who it was served to, for which category and its title, when,
+// which questions, and a digest of their answer key. Submissions are checked against it instead of re-reading what was served.
+@Component
+public class QuizSessionTokens {
+
+    public static final String HEADER = "X-Quiz-Session";
+
+    public static final long DIGEST_SEED = 0x9E3779B97F4A7C15L;
+
+    private static final byte VERSION = 2;
+    // Issued before the category title was carried; still accepted until they expire
+    private static final byte VERSION_WITHOUT_TITLE = 1;
+    private static final int MAC_LENGTH = 16;
+    private static final int MAX_QUESTIONS = 255;
+    private static final int MAX_TITLE_BYTES = 0xFFFF;
+    private static final String ALGORITHM = "HmacSHA256";
+
+    public static final class Session {
+        private final long startedAtMillis;
+        private final long[] questionIds;
+        private final long answerKeyDigest;
+        private final String categoryTitle;
+
+        private Session(long startedAtMillis, long[] questionIds, long answerKeyDigest, String categoryTitle) {
+            this.startedAtMillis = startedAtMillis;
+            this.questionIds = questionIds;
+            this.answerKeyDigest = answerKeyDigest;
+            this.categoryTitle = categoryTitle;
+        }
+
+        public long getStartedAtMillis() {
+            return startedAtMillis;
+        }
+
+        public long[] getQuestionIds() {
+            return questionIds;
+        }
+
+        public long getAnswerKeyDigest() {
+            return answerKeyDigest;
+        }
+
+        // Null for sessions issued before the title was carried
+        public String getCategoryTitle() {
+            return categoryTitle;
+        }
+
+        // Position of the question in served order, or -1 if it was not served
+        public int indexOf(long questionId) {
+            for (int i = 0; i < questionIds.length; i++) {
+                if (questionIds[i] == questionId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    @Value("${app.quiz-session.secret}")
+    private String secret;
+
+    @Value("${app.quiz-session.max-age-seconds:3600}")
+    private long maxAgeSeconds;
+
+    private SecretKeySpec key;
+
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(() -> {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Cannot initialise " + ALGORITHM, ex);
+        }
+    });
+
+    @PostConstruct
+    public void init() {
+        key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    // Folds one question into an answer-key digest started from DIGEST_SEED; questions go in served order
+    public static long digest(long digest, long questionId, int correctAnswer, int points) {
+        digest = (digest ^ questionId) * 0x100000001B3L;
+        digest = (digest ^ correctAnswer) * 0x100000001B3L;
+        return (digest ^ points) * 0x100000001B3L;
+    }
+
+    public String issue(long userId, long categoryId, String categoryTitle, List<Long> questionIds,
+                        long answerKeyDigest) {
+        if (questionIds.size() > MAX_QUESTIONS) {
+            throw new IllegalArgumentException("At most " + MAX_QUESTIONS + " questions fit in a quiz session");
+        }
+        byte[] title = (categoryTitle != null ? categoryTitle : "").getBytes(StandardCharsets.UTF_8);
+        if (title.length > MAX_TITLE_BYTES) {
+            throw new IllegalArgumentException("Category title is too long for a quiz session");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 3 * Long.BYTES + 1 + questionIds.size() * Long.BYTES
+                + Long.BYTES + Short.BYTES + title.length + MAC_LENGTH);
+        buffer.put(VERSION)
+                .putLong(userId)
+                .putLong(categoryId)
+                .putLong(System.currentTimeMillis())
+                .put((byte) questionIds.size());
+        for (Long questionId : questionIds) {
+            buffer.putLong(questionId);
+        }
+        buffer.putLong(answerKeyDigest)
+                .putShort((short) title.length)
+                .put(title);
+        buffer.put(sign(buffer.array(), buffer.position()));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    // Rejects tokens that are malformed, forged, expired, or were issued to another user or category
+    public Session verify(String token, long userId, long categoryId) {
+        if (token == null || token.isBlank()) {
+            throw new BadRequestException("Quiz session is missing, load the questions again");
+        }
+
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Quiz session is invalid");
+        }
+        int header = 1 + 3 * Long.BYTES + 1;
+        if (bytes.length < header + Long.BYTES + MAC_LENGTH
+                || (bytes[0] != VERSION && bytes[0] != VERSION_WITHOUT_TITLE)) {
+            throw new BadRequestException("Quiz session is invalid");
+        }
+        boolean hasTitle = bytes[0] == VERSION;
+        int count = bytes[header - 1] & 0xFF;
+        int titleAt = header + count * Long.BYTES + Long.BYTES;
+        int titleLength = 0;
+        if (hasTitle) {
+            if (bytes.length < titleAt + Short.BYTES + MAC_LENGTH) {
+                throw new BadRequestException("Quiz session is invalid");
+            }
+            titleLength = ((bytes[titleAt] & 0xFF) << 8) | (bytes[titleAt + 1] & 0xFF);
+        }
+        int signedLength = hasTitle ? titleAt + Short.BYTES + titleLength : titleAt;
+        if (bytes.length != signedLength + MAC_LENGTH
+                || !MessageDigest.isEqual(sign(bytes, signedLength), Arrays.copyOfRange(bytes, signedLength, bytes.length))) {
+            throw new BadRequestException("Quiz session is invalid");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, signedLength - 1);
+        long tokenUserId = buffer.getLong();
+        long tokenCategoryId = buffer.getLong();
+        long startedAtMillis = buffer.getLong();
+        buffer.get();
+        long[] questionIds = new long[count];
+        for (int i = 0; i < count; i++) {
+            questionIds[i] = buffer.getLong();
+        }
+        long answerKeyDigest = buffer.getLong();
+        String categoryTitle = hasTitle
+                ? new String(bytes, titleAt + Short.BYTES, titleLength, StandardCharsets.UTF_8)
+                : null;
+
+        if (tokenUserId != userId || tokenCategoryId != categoryId) {
+            throw new BadRequestException("Quiz session does not belong to this quiz");
+        }
+        if (System.currentTimeMillis() - startedAtMillis > maxAgeSeconds * 1000) {
+            throw new BadRequestException("Quiz session has expired, load the questions again");
+        }
+        return new Session(startedAtMillis, questionIds, answerKeyDigest, categoryTitle);
+    }
+
+    private byte[] sign(byte[] data, int length) {
+        Mac mac = macs.get();
+        mac.update(data, 0, length);
+        return Arrays.copyOf(mac.doFinal(), MAC_LENGTH);
+    }
+}
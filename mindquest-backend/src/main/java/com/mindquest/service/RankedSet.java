@@ -0,0 +1,355 @@
+package com.mindquest.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Indexed skip list of ids ordered by primary score descending, then secondary ascending, then id.
+// Every link carries the number of nodes it jumps over, so rank lookups and rank-based range reads
+// are O(log n) the same way Redis sorted sets work.
+public class RankedSet {
+
+    private static final int MAX_LEVEL = 32;
+    private static final double LEVEL_PROBABILITY = 0.25;
+
+    public static final class Entry {
+        private final long id;
+        private final long primary;
+        private final long secondary;
+        private final long rank;
+
+        private Entry(long id, long primary, long secondary, long rank) {
+            this.id = id;
+            this.primary = primary;
+            this.secondary = secondary;
+            this.rank = rank;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public long getPrimary() {
+            return primary;
+        }
+
+        public long getSecondary() {
+            return secondary;
+        }
+
+        public long getRank() {
+            return rank;
+        }
+    }
+
+    private static final class Node {
+        private final long id;
+        private final long primary;
+        private final long secondary;
+        private final Node[] next;
+        private final int[] span;
+
+        private Node(long id, long primary, long secondary, int level) {
+            this.id = id;
+            this.primary = primary;
+            this.secondary = secondary;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+
+    private final Node head = new Node(0, 0, 0, MAX_LEVEL);
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int level = 1;
+    private int length;
+
+    public void put(long id, long primary, long secondary) {
+        lock.writeLock().lock();
+        try {
+            Node existing = nodes.get(id);
+            if (existing != null) {
+                if (existing.primary == primary && existing.secondary == secondary) {
+                    return;
+                }
+                unlink(existing);
+            }
+            nodes.put(id, insert(id, primary, secondary));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean putIfAbsent(long id, long primary, long secondary) {
+        lock.writeLock().lock();
+        try {
+            if (nodes.containsKey(id)) {
+                return false;
+            }
+            nodes.put(id, insert(id, primary, secondary));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds delta to the primary score, starting from zero for ids not yet present
+    public long increment(long id, long delta, long secondary) {
+        lock.writeLock().lock();
+        try {
+            Node existing = nodes.get(id);
+            long primary = delta;
+            if (existing != null) {
+                primary += existing.primary;
+                unlink(existing);
+            }
+            nodes.put(id, insert(id, primary, secondary));
+            return primary;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Node existing = nodes.remove(id);
+            if (existing == null) {
+                return false;
+            }
+            unlink(existing);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            nodes.clear();
+            for (int i = 0; i < MAX_LEVEL; i++) {
+                head.next[i] = null;
+                head.span[i] = 0;
+            }
+            level = 1;
+            length = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return nodes.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 1-based rank, or 0 when the id is not ranked
+    public long rank(long id) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(id);
+            return node != null ? rankOf(node) : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of entries that would rank ahead of the given key, whether or not the id is present
+    public long countAhead(long id, long primary, long secondary) {
+        lock.readLock().lock();
+        try {
+            long ahead = 0;
+            Node x = head;
+            for (int i = level - 1; i >= 0; i--) {
+                while (x.next[i] != null && compare(x.next[i], primary, secondary, id) < 0) {
+                    ahead += x.span[i];
+                    x = x.next[i];
+                }
+            }
+            return ahead;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Entry get(long id) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(id);
+            return node != null ? new Entry(node.id, node.primary, node.secondary, rankOf(node)) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Entry> top(int count) {
+        return range(1, count);
+    }
+
+    // Entries within radius places either side of the id, empty when the id is not ranked
+    public List<Entry> around(long id, int radius) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(id);
+            if (node == null) {
+                return new ArrayList<>();
+            }
+            long rank = rankOf(node);
+            long start = Math.max(1, rank - radius);
+            return rangeLocked(start, (int) (rank - start) + radius + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Entry> range(long startRank, int count) {
+        lock.readLock().lock();
+        try {
+            return rangeLocked(startRank, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Entry> rangeLocked(long startRank, int count) {
+        List<Entry> entries = new ArrayList<>(Math.max(0, Math.min(count, nodes.size())));
+        if (startRank < 1 || count <= 0 || startRank > nodes.size()) {
+            return entries;
+        }
+
+        long rank = startRank;
+        for (Node node = nodeAt(startRank); node != null && entries.size() < count; node = node.next[0]) {
+            entries.add(new Entry(node.id, node.primary, node.secondary, rank++));
+        }
+        return entries;
+    }
+
+    private Node nodeAt(long rank) {
+        long traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= rank) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == rank) {
+                return x;
+            }
+        }
+        return null;
+    }
+
+    private long rankOf(Node node) {
+        long rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i], node.primary, node.secondary, node.id) <= 0) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x == node) {
+                return rank;
+            }
+        }
+        return 0;
+    }
+
+    private Node insert(long id, long primary, long secondary) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && compare(x.next[i], primary, secondary, id) < 0) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = length;
+            }
+            level = nodeLevel;
+        }
+
+        Node node = new Node(id, primary, secondary, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = (rank[0] - rank[i]) + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        length++;
+        return node;
+    }
+
+    private void unlink(Node node) {
+        Node[] update = new Node[MAX_LEVEL];
+
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i], node.primary, node.secondary, node.id) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == node) {
+                update[i].span[i] += node.span[i] - 1;
+                update[i].next[i] = node.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        length--;
+    }
+
+    private static int compare(Node node, long primary, long secondary, long id) {
+        if (node.primary != primary) {
+            return node.primary > primary ? -1 : 1;
+        }
+        if (node.secondary != secondary) {
+            return node.secondary < secondary ? -1 : 1;
+        }
+        return Long.compare(node.id, id);
+    }
+
+    private static int randomLevel() {
+        int nodeLevel = 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (nodeLevel < MAX_LEVEL && random.nextDouble() < LEVEL_PROBABILITY) {
+            nodeLevel++;
+        }
+        return nodeLevel;
+    }
+}
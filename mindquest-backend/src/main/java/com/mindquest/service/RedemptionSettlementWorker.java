@@ -0,0 +1,253 @@
+package com.mindquest.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Moves PENDING redemptions through the payout gateway off the request thread. Rows are claimed with
+// FOR UPDATE SKIP LOCKED so any number of instances can poll the same table without double-paying, and a
+// PROCESSING row whose lease has run out (its worker died) becomes claimable again.
+@Component
+public class RedemptionSettlementWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedemptionSettlementWorker.class);
+
+    private static final String CLAIM_SQL =
+            "UPDATE reward_redemptions SET status = 'PROCESSING', claimed_at = ?, updated_at = ?, " +
+            "attempts = COALESCE(attempts, 0) + 1 " +
+            "WHERE id IN (SELECT id FROM reward_redemptions " +
+            "WHERE (status = 'PENDING' AND (next_attempt_at IS NULL OR next_attempt_at <= ?)) " +
+            "OR (status = 'PROCESSING' AND claimed_at < ?) " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, wallet_address, value, attempts";
+
+    // The attempts check fences off a worker whose lease expired and whose row was claimed again
+    private static final String COMPLETE_SQL =
+            "UPDATE reward_redemptions SET status = 'COMPLETED', transaction_id = ?, completed_at = ?, " +
+            "updated_at = ?, failure_reason = NULL WHERE id = ? AND status = 'PROCESSING' AND attempts = ?";
+
+    private static final String RETRY_SQL =
+            "UPDATE reward_redemptions SET status = 'PENDING', next_attempt_at = ?, failure_reason = ?, " +
+            "updated_at = ? WHERE id = ? AND status = 'PROCESSING' AND attempts = ?";
+
+    // Returns the row only when the fence matched, which is what makes the refund that follows happen once
+    private static final String FAIL_SQL =
+            "UPDATE reward_redemptions SET status = 'FAILED', failure_reason = ?, " +
+            "updated_at = ? WHERE id = ? AND status = 'PROCESSING' AND attempts = ? " +
+            "RETURNING user_id, points_used";
+
+    private static final class Claim {
+        private final long id;
+        private final String walletAddress;
+        private final String value;
+        private final int attempts;
+
+        private Claim(long id, String walletAddress, String value, int attempts) {
+            this.id = id;
+            this.walletAddress = walletAddress;
+            this.value = value;
+            this.attempts = attempts;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PayoutGateway payoutGateway;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PointsService pointsService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.settlement.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.settlement.max-batches-per-poll:10}")
+    private int maxBatchesPerPoll;
+
+    @Value("${app.settlement.concurrency:4}")
+    private int concurrency;
+
+    @Value("${app.settlement.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${app.settlement.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.settlement.backoff-base-ms:30000}")
+    private long backoffBaseMs;
+
+    @Value("${app.settlement.backoff-max-ms:3600000}")
+    private long backoffMaxMs;
+
+    private ExecutorService executor;
+    private Counter completed;
+    private Counter retried;
+    private Counter failed;
+    private Timer payoutTime;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "redemption-settlement-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        completed = settlementCounter("completed");
+        retried = settlementCounter("retried");
+        failed = settlementCounter("failed");
+        payoutTime = Timer.builder("redemption.settlement.payout")
+                .description("Time spent in the payout gateway per redemption")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${app.settlement.poll-interval-ms:5000}")
+    public void settle() {
+        // Keep draining while batches come back full, so a backlog doesn't wait a poll interval per batch, but
+        // hand the scheduler back after a bounded number of them so the other jobs still get their turn
+        List<Claim> claims;
+        int batches = 0;
+        do {
+            claims = claim();
+            if (claims.isEmpty()) {
+                return;
+            }
+            process(claims);
+        } while (claims.size() >= batchSize && ++batches < maxBatchesPerPoll);
+    }
+
+    private List<Claim> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp nowTs = Timestamp.valueOf(now);
+        Timestamp leaseExpired = Timestamp.valueOf(now.minus(Duration.ofMillis(leaseMs)));
+
+        // A single autocommitted statement: the rows are PROCESSING and released before the gateway is called
+        return jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new Claim(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getInt(4)),
+                nowTs, nowTs, nowTs, leaseExpired, batchSize);
+    }
+
+    private void process(List<Claim> claims) {
+        List<Future<?>> results = new ArrayList<>(claims.size());
+        for (Claim claim : claims) {
+            results.add(executor.submit(() -> settleOne(claim)));
+        }
+
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException ex) {
+                logger.error("Settlement task failed", ex.getCause());
+            }
+        }
+    }
+
+    private void settleOne(Claim claim) {
+        String transactionId;
+        try {
+            transactionId = payoutTime.recordCallable(
+                    () -> payoutGateway.payout(claim.id, claim.walletAddress, claim.value));
+        } catch (Exception ex) {
+            recordFailure(claim, ex);
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (jdbcTemplate.update(COMPLETE_SQL, transactionId, now, now, claim.id, claim.attempts) == 1) {
+            completed.increment();
+        } else {
+            logger.warn("Redemption {} was reclaimed before payout {} was recorded", claim.id, transactionId);
+        }
+    }
+
+    private void recordFailure(Claim claim, Exception ex) {
+        String reason = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+        if (reason.length() > 500) {
+            reason = reason.substring(0, 500);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        if (claim.attempts >= maxAttempts) {
+            fail(claim, reason, now);
+            return;
+        }
+
+        long delayMs = Math.min(backoffMaxMs, backoffBaseMs << Math.min(claim.attempts - 1, 20));
+        Timestamp nextAttemptAt = Timestamp.valueOf(LocalDateTime.now().plus(Duration.ofMillis(delayMs)));
+        jdbcTemplate.update(RETRY_SQL, nextAttemptAt, reason, now, claim.id, claim.attempts);
+        retried.increment();
+        logger.warn("Redemption {} payout attempt {} failed, retrying in {} ms: {}",
+                claim.id, claim.attempts, delayMs, reason);
+    }
+
+    // The FAILED transition and the refund of the debited points commit together, so the balance and the ledger
+    // never show a redemption that was both charged and abandoned
+    private void fail(Claim claim, String reason, Timestamp now) {
+        boolean marked = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            List<long[]> rows = jdbcTemplate.query(FAIL_SQL,
+                    (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)},
+                    reason, now, claim.id, claim.attempts);
+            if (rows.isEmpty()) {
+                return false;
+            }
+            long userId = rows.get(0)[0];
+            long pointsUsed = rows.get(0)[1];
+            if (pointsUsed > 0) {
+                pointsService.refundPoints(userId, pointsUsed, "reward_refund",
+                        "Refund for failed redemption " + claim.id);
+            }
+            return true;
+        }));
+
+        if (marked) {
+            failed.increment();
+            logger.error("Redemption {} failed after {} attempts and was refunded: {}", claim.id, claim.attempts, reason);
+        } else {
+            logger.warn("Redemption {} was reclaimed before its failure was recorded", claim.id);
+        }
+    }
+
+    private Counter settlementCounter(String result) {
+        return Counter.builder("redemption.settlement")
+                .description("Redemptions leaving PROCESSING, by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
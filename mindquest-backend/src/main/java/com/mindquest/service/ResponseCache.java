@@ -0,0 +1,132 @@
+package com.mindquest.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Component
+public class ResponseCache {
+
+    public static final String QUIZ_CATEGORIES = "quiz-categories";
+    public static final String COMMUNITY_STATS = "community-stats";
+    public static final String COMMUNITY_CATEGORIES = "community-categories";
+    public static final String COMMUNITY_EXPERTS = "community-experts";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.response-cache.ttl-ms:30000}")
+    private long ttlMs;
+
+    // Experts expire on their own rather than being dropped on every award, which would empty the region constantly
+    @Value("${app.response-cache.experts-ttl-ms:10000}")
+    private long expertsTtlMs;
+
+    @Value("${app.response-cache.max-entries-per-region:1000}")
+    private int maxEntriesPerRegion;
+
+    private final ConcurrentMap<String, Region> regions = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String regionName, String key, Supplier<T> loader) {
+        Region region = regions.computeIfAbsent(regionName, this::createRegion);
+        long now = System.nanoTime();
+
+        Entry entry = region.entries.get(key);
+        if (entry == null || entry.isExpired(now)) {
+            if (region.entries.size() >= maxEntriesPerRegion) {
+                region.entries.clear();
+            }
+            Entry loading = new Entry();
+            entry = region.entries.compute(key,
+                    (k, current) -> current != null && !current.isExpired(now) ? current : loading);
+
+            // Only the thread that installed the entry runs the loader; everyone else waits on it
+            if (entry == loading) {
+                region.misses.increment();
+                return (T) load(region, key, loading, loader);
+            }
+        }
+
+        region.hits.increment();
+        try {
+            return (T) entry.value.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    // Drops a region once the current transaction commits
+    public void invalidate(String... regionNames) {
+        AfterCommit.run(() -> {
+            for (String regionName : regionNames) {
+                Region region = regions.get(regionName);
+                if (region != null) {
+                    region.entries.clear();
+                }
+            }
+        });
+    }
+
+    private Object load(Region region, String key, Entry entry, Supplier<?> loader) {
+        long start = System.nanoTime();
+        try {
+            Object value = loader.get();
+            entry.expiresAt = System.nanoTime() + region.ttlNanos;
+            entry.value.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            region.entries.remove(key, entry);
+            entry.value.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            region.loadTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Region createRegion(String regionName) {
+        long regionTtlMs = COMMUNITY_EXPERTS.equals(regionName) ? expertsTtlMs : ttlMs;
+        return new Region(TimeUnit.MILLISECONDS.toNanos(regionTtlMs),
+                meterRegistry.counter("response.cache.requests", "region", regionName, "result", "hit"),
+                meterRegistry.counter("response.cache.requests", "region", regionName, "result", "miss"),
+                meterRegistry.timer("response.cache.load", "region", regionName));
+    }
+
+    private static class Region {
+        final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+        final Counter hits;
+        final Counter misses;
+        final Timer loadTime;
+        final long ttlNanos;
+
+        Region(long ttlNanos, Counter hits, Counter misses, Timer loadTime) {
+            this.ttlNanos = ttlNanos;
+            this.hits = hits;
+            this.misses = misses;
+            this.loadTime = loadTime;
+        }
+    }
+
+    private static class Entry {
+        final CompletableFuture<Object> value = new CompletableFuture<>();
+        // Never expires while the value is still loading
+        volatile long expiresAt = Long.MAX_VALUE;
+
+        boolean isExpired(long now) {
+            return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.mindquest.service;
+
+import com.mindquest.dto.response.CryptoRewardResponse;
+import com.mindquest.entity.CryptoReward;
+import com.mindquest.repository.CryptoRewardRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+
+// Immutable snapshot of the available rewards, swapped in whole whenever a reward changes. Rewards are kept
+// sorted by minPoints, so what a user can afford is a prefix of the list found with one binary search.
+@Component
+public class RewardCatalog {
+
+    public static final class Listing {
+        private final Snapshot snapshot;
+        private final int affordable;
+
+        private Listing(Snapshot snapshot, int affordable) {
+            this.snapshot = snapshot;
+            this.affordable = affordable;
+        }
+
+        // Covers both the catalog content and where the user's balance falls in it
+        public String getEtag() {
+            return snapshot.version + "-" + affordable;
+        }
+
+        public List<CryptoRewardResponse> getRewards() {
+            List<CryptoRewardResponse> rewards = new ArrayList<>(snapshot.entries.size());
+            for (int i = 0; i < snapshot.entries.size(); i++) {
+                Entry entry = snapshot.entries.get(i);
+                rewards.add(new CryptoRewardResponse(
+                        "reward_" + entry.id,
+                        entry.cryptoType,
+                        entry.amount,
+                        "", // transactionHash is empty for available rewards
+                        i < affordable ? "available" : "unavailable",
+                        entry.updatedAt,
+                        entry.network,
+                        null
+                ));
+            }
+            return rewards;
+        }
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final long minPoints;
+        private final String cryptoType;
+        private final double amount;
+        private final String network;
+        private final LocalDateTime updatedAt;
+
+        private Entry(CryptoReward reward) {
+            this.id = reward.getId();
+            this.minPoints = reward.getMinPoints() != null ? reward.getMinPoints() : 0L;
+            this.cryptoType = reward.getCryptoType();
+            this.amount = reward.getAmount();
+            this.network = reward.getNetwork();
+            this.updatedAt = reward.getUpdatedAt() != null ? reward.getUpdatedAt() : reward.getCreatedAt();
+        }
+    }
+
+    private static final class Snapshot {
+        private final List<Entry> entries;
+        private final long[] minPoints;
+        private final String version;
+
+        private Snapshot(List<Entry> entries, String version) {
+            this.entries = Collections.unmodifiableList(entries);
+            this.minPoints = new long[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                minPoints[i] = entries.get(i).minPoints;
+            }
+            this.version = version;
+        }
+    }
+
+    @Autowired
+    private CryptoRewardRepository rewardRepository;
+
+    private volatile Snapshot snapshot;
+
+    public Listing getListing(long userPoints) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            current = load();
+        }
+        return new Listing(current, affordableCount(current.minPoints, userPoints));
+    }
+
+    // Also runs on a timer so rewards edited outside the application are picked up eventually
+    @Scheduled(fixedDelayString = "${app.reward-catalog.refresh-interval-ms:600000}")
+    public void reload() {
+        load();
+    }
+
+    private synchronized Snapshot load() {
+        List<Entry> entries = new ArrayList<>();
+        for (CryptoReward reward : rewardRepository.findAvailableRewards()) {
+            entries.add(new Entry(reward));
+        }
+        Snapshot loaded = new Snapshot(entries, versionOf(entries));
+        snapshot = loaded;
+        return loaded;
+    }
+
+    // Number of leading rewards whose minPoints the balance covers
+    private static int affordableCount(long[] minPoints, long points) {
+        int low = 0;
+        int high = minPoints.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (minPoints[mid] <= points) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Content hash rather than a counter, so every instance derives the same ETag for the same catalog
+    private static String versionOf(List<Entry> entries) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Entry entry : entries) {
+                String row = entry.id + "|" + entry.minPoints + "|" + entry.cryptoType + "|" + entry.amount + "|"
+                        + entry.network + "|" + entry.updatedAt + "\n";
+                digest.update(row.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 8);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -2,7 +2,7 @@ package com.mindquest.service;
 
 
 import com.mindquest.dto.request.RedeemRewardRequest;
-import com.mindquest.dto.response.CryptoRewardResponse;
+import com.mindquest.dto.response.CursorPage;
 import com.mindquest.dto.response.RedemptionResponse;
 import com.mindquest.entity.CryptoReward;
 import com.mindquest.entity.RewardRedemption;
@@ -14,16 +14,22 @@ import com.mindquest.repository.RewardRedemptionRepository;
 import com.mindquest.repository.UserRepository;
 import com.mindquest.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -41,37 +47,75 @@ public class RewardService {
     @Autowired
     private PointsService pointsService;
 
-    public List<CryptoRewardResponse> getAvailableRewards(Authentication authentication) {
-        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userPrincipal.getId()));
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
-        List<CryptoReward> rewards = rewardRepository.findAvailableRewards();
-        
-        return rewards.stream()
-                .map(reward -> convertToRewardResponse(reward, user))
-                .collect(Collectors.toList());
-    }
+    @Autowired
+    private RewardCatalog rewardCatalog;
 
-    private CryptoRewardResponse convertToRewardResponse(CryptoReward reward, User user) {
-        boolean canRedeem = user.getPoints() >= reward.getMinPoints() && reward.getAvailable();
-        
-        return new CryptoRewardResponse(
-            "reward_" + reward.getId(),
-            user.getWalletAddress(),
-            reward.getCryptoType(),
-            reward.getValue(),
-            "", // transactionHash is empty for available rewards
-            canRedeem ? "available" : "unavailable",
-            LocalDateTime.now(),
-            reward.getNetwork()
-        );
+    @Transactional(readOnly = true)
+    public RewardCatalog.Listing getAvailableRewards(Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        // Only the balance is needed to mark which catalog entries are affordable
+        Long points = userRepository.findPointsById(userPrincipal.getId());
+        if (points == null) {
+            throw new ResourceNotFoundException("User", "id", userPrincipal.getId());
+        }
+
+        return rewardCatalog.getListing(points);
     }
 
+    // Runs its own transactions so a lost race on the idempotency key can roll back and then read the winner
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public RedemptionResponse redeemReward(RedeemRewardRequest request, Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userPrincipal.getId()));
+        String idempotencyKey = request.getIdempotencyKey();
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return transactionTemplate.execute(status -> redeem(request, userPrincipal.getId(), null, null));
+        }
+
+        // Replays are answered from the row every time, so they report the redemption's current status
+        String fingerprint = fingerprint(request);
+        try {
+            return transactionTemplate.execute(status -> redemptionRepository
+                    .findByUserIdAndIdempotencyKey(userPrincipal.getId(), idempotencyKey)
+                    .map(existing -> replay(existing, fingerprint))
+                    .orElseGet(() -> redeem(request, userPrincipal.getId(), idempotencyKey, fingerprint)));
+        } catch (DataIntegrityViolationException ex) {
+            if (!ConstraintViolations.isViolationOf(ex, "uk_reward_redemptions_user_idempotency_key")) {
+                throw ex;
+            }
+            // A concurrent retry claimed the key first; our insert and debit rolled back together
+            return transactionTemplate.execute(status -> redemptionRepository
+                    .findByUserIdAndIdempotencyKey(userPrincipal.getId(), idempotencyKey)
+                    .map(existing -> replay(existing, fingerprint))
+                    .orElseThrow(() -> ex));
+        }
+    }
+
+    private RedemptionResponse replay(RewardRedemption existing, String fingerprint) {
+        // Rows from before fingerprints were stored can't be checked and are replayed as they are
+        if (existing.getRequestFingerprint() != null && !existing.getRequestFingerprint().equals(fingerprint)) {
+            throw new BadRequestException("This idempotency key was already used for a different redemption");
+        }
+        return convertToRedemptionResponse(existing);
+    }
+
+    private static String fingerprint(RedeemRewardRequest request) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest((request.getRewardId() + "\n" + request.getWalletAddress())
+                    .getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private RedemptionResponse redeem(RedeemRewardRequest request, Long userId, String idempotencyKey,
+                                      String fingerprint) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
         CryptoReward reward = rewardRepository.findById(request.getRewardId())
                 .orElseThrow(() -> new ResourceNotFoundException("Reward", "id", request.getRewardId()));
@@ -84,11 +128,13 @@ public class RewardService {
             throw new BadRequestException("Insufficient points");
         }
 
-        // Create redemption record
+        // Create redemption record; flushing now makes a duplicate idempotency key fail before any points move
         RewardRedemption redemption = new RewardRedemption(user, reward, request.getWalletAddress());
-        redemption = redemptionRepository.save(redemption);
+        redemption.setIdempotencyKey(idempotencyKey);
+        redemption.setRequestFingerprint(fingerprint);
+        redemption = redemptionRepository.saveAndFlush(redemption);
 
-        // Deduct points from user
+        // The check above is only a fast path; the conditional debit is what holds under concurrent redeems
         pointsService.deductPoints(user, reward.getMinPoints(), "reward_redemption", 
             "Redeemed " + reward.getName());
 
@@ -106,6 +152,19 @@ public class RewardService {
         return redemptions.map(this::convertToRedemptionResponse);
     }
 
+    public CursorPage<RedemptionResponse> getRedemptionHistory(Authentication authentication, String cursor, int size) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        User user = userRepository.findById(userPrincipal.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userPrincipal.getId()));
+
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<RewardRedemption> redemptions = redemptionRepository.findByUserBefore(
+            user, position.getCreatedAt(), position.getId(), KeysetCursor.limit(size));
+
+        return KeysetCursor.page(redemptions, size, RewardRedemption::getCreatedAt, RewardRedemption::getId,
+            this::convertToRedemptionResponse);
+    }
+
     private RedemptionResponse convertToRedemptionResponse(RewardRedemption redemption) {
         LocalDateTime estimatedDelivery = redemption.getEstimatedDelivery();
         
@@ -0,0 +1,29 @@
+package com.mindquest.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Local stand-in that "pays out" instantly so the settlement pipeline can run without a real provider
+@Component
+@ConditionalOnProperty(name = "app.settlement.gateway", havingValue = "stub", matchIfMissing = true)
+public class StubPayoutGateway implements PayoutGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(StubPayoutGateway.class);
+
+    private final ConcurrentMap<Long, String> payouts = new ConcurrentHashMap<>();
+
+    @Override
+    public String payout(Long redemptionId, String walletAddress, String value) {
+        return payouts.computeIfAbsent(redemptionId, id -> {
+            String transactionId = "0x" + UUID.randomUUID().toString().replace("-", "");
+            logger.info("Stub payout of {} to {} for redemption {}: {}", value, walletAddress, id, transactionId);
+            return transactionId;
+        });
+    }
+}
@@ -0,0 +1,297 @@
+package com.mindquest.service;
+
+import com.mindquest.entity.QuizSubmissionEvent;
+import com.mindquest.entity.User;
+import com.mindquest.repository.QuizSubmissionEventRepository;
+import com.mindquest.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Applies the points and level-up that follow a quiz submission, off the request path. Submissions write a
+// QuizSubmissionEvent with the attempt and hand it over here after commit. Each user maps to one
+// single-threaded partition, so a user's events apply in order while different users proceed in parallel.
+// Partition queues are bounded. When one is full the event stays in the outbox and the poller, which also
+// covers restarts and crashes, picks it up later. Request threads never wait on the pipeline. A failing event
+// is retried with backoff and parked once it has used up app.submission-pipeline.max-attempts.
+@Component
+public class SubmissionPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionPipeline.class);
+
+    private static final class Submission {
+        private final long eventId;
+        private final long userId;
+        private final long points;
+        private final String description;
+        private final LocalDateTime createdAt;
+        private final int attempts;
+
+        private Submission(QuizSubmissionEvent event) {
+            this.eventId = event.getId();
+            this.userId = event.getUserId();
+            this.points = event.getPoints();
+            this.description = event.getDescription();
+            this.createdAt = event.getCreatedAt() != null ? event.getCreatedAt() : LocalDateTime.now();
+            this.attempts = event.getAttempts() != null ? event.getAttempts() : 0;
+        }
+    }
+
+    @Autowired
+    private QuizSubmissionEventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PointsService pointsService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.submission-pipeline.partitions:4}")
+    private int partitions;
+
+    @Value("${app.submission-pipeline.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.submission-pipeline.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.submission-pipeline.poll-grace-ms:10000}")
+    private long pollGraceMs;
+
+    @Value("${app.submission-pipeline.retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${app.submission-pipeline.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.submission-pipeline.backoff-base-ms:30000}")
+    private long backoffBaseMs;
+
+    @Value("${app.submission-pipeline.backoff-max-ms:3600000}")
+    private long backoffMaxMs;
+
+    // Events queued or being applied, so the poller doesn't queue a backlog twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor[] workers;
+    private Counter applied;
+    private Counter duplicates;
+    private Counter deferred;
+    private Counter failed;
+    private Counter parked;
+    private Timer lag;
+    private volatile long oldestPendingSeconds;
+
+    @PostConstruct
+    public void init() {
+        workers = new ThreadPoolExecutor[partitions];
+        for (int i = 0; i < partitions; i++) {
+            String name = "submission-pipeline-" + (i + 1);
+            workers[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                        Thread thread = new Thread(runnable, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.AbortPolicy());
+        }
+
+        applied = pipelineCounter("applied");
+        duplicates = pipelineCounter("duplicate");
+        deferred = pipelineCounter("deferred");
+        failed = pipelineCounter("failed");
+        parked = pipelineCounter("parked");
+        lag = Timer.builder("submission.pipeline.lag")
+                .description("Time from a quiz submission committing to its points being applied")
+                .register(meterRegistry);
+        Gauge.builder("submission.pipeline.queued", this, SubmissionPipeline::queued)
+                .description("Submissions waiting in the partition queues")
+                .register(meterRegistry);
+        Gauge.builder("submission.pipeline.oldest.pending", this, pipeline -> pipeline.oldestPendingSeconds)
+                .description("Age in seconds of the oldest unapplied submission in the outbox")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Anything still queued is unprocessed in the outbox and is replayed on the next start
+        for (ThreadPoolExecutor worker : workers) {
+            worker.shutdownNow();
+        }
+    }
+
+    // Called from the submitting transaction once the event has an id
+    public void submitted(QuizSubmissionEvent event) {
+        Submission submission = new Submission(event);
+        AfterCommit.run(() -> dispatch(submission));
+    }
+
+    // Picks up events that were deferred by a full queue, lost to a restart, or are due for a retry
+    @Scheduled(fixedDelayString = "${app.submission-pipeline.poll-interval-ms:5000}")
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime oldest = eventRepository.findOldestPendingCreatedAt();
+        oldestPendingSeconds = oldest != null ? Math.max(0, Duration.between(oldest, now).getSeconds()) : 0;
+
+        // The grace period leaves freshly committed events to the direct handoff
+        List<QuizSubmissionEvent> pending = eventRepository.findPending(
+                now.minus(Duration.ofMillis(pollGraceMs)), now, PageRequest.of(0, batchSize));
+        for (QuizSubmissionEvent event : pending) {
+            if (!dispatch(new Submission(event))) {
+                break;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.submission-pipeline.cleanup-interval-ms:3600000}")
+    public void purgeProcessed() {
+        Integer removed = transactionTemplate.execute(status ->
+                eventRepository.deleteProcessedBefore(LocalDateTime.now().minusHours(retentionHours)));
+        if (removed != null && removed > 0) {
+            logger.debug("Removed {} processed submission events", removed);
+        }
+    }
+
+    private boolean dispatch(Submission submission) {
+        if (!inFlight.add(submission.eventId)) {
+            return true;
+        }
+        ThreadPoolExecutor worker = workers[(int) Math.floorMod(submission.userId, (long) partitions)];
+        try {
+            worker.execute(() -> apply(submission));
+            return true;
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(submission.eventId);
+            deferred.increment();
+            return false;
+        }
+    }
+
+    private void apply(Submission submission) {
+        try {
+            Boolean claimed = transactionTemplate.execute(status -> {
+                // Claiming and applying commit together, so a redelivered event finds nothing to claim
+                if (eventRepository.markProcessed(submission.eventId, LocalDateTime.now()) == 0) {
+                    return false;
+                }
+                User user = userRepository.findById(submission.userId).orElse(null);
+                if (user == null) {
+                    return true;
+                }
+                pointsService.awardPoints(user, submission.points, "quiz_completion", submission.description);
+                updateUserLevel(user);
+                return true;
+            });
+            if (Boolean.TRUE.equals(claimed)) {
+                applied.increment();
+                lag.record(Duration.between(submission.createdAt, LocalDateTime.now()));
+            } else {
+                duplicates.increment();
+            }
+        } catch (RuntimeException ex) {
+            // Rolled back, so the event is still pending; the poller retries it once its backoff is over
+            recordFailure(submission, ex);
+        } finally {
+            inFlight.remove(submission.eventId);
+        }
+    }
+
+    private void recordFailure(Submission submission, RuntimeException cause) {
+        int attempts = submission.attempts + 1;
+        LocalDateTime now = LocalDateTime.now();
+        boolean exhausted = attempts >= maxAttempts;
+        long delayMs = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempts - 1, 20));
+        String reason = describe(cause);
+
+        Integer updated;
+        try {
+            updated = transactionTemplate.execute(status -> eventRepository.recordFailure(submission.eventId,
+                    submission.attempts, exhausted ? null : now.plus(Duration.ofMillis(delayMs)),
+                    exhausted ? now : null, reason));
+        } catch (RuntimeException ex) {
+            // Still pending with its old attempt count, so it is simply retried on the next poll
+            cause.addSuppressed(ex);
+            failed.increment();
+            logger.error("Failed to apply submission event {} or record the failure", submission.eventId, cause);
+            return;
+        }
+        if (updated == null || updated == 0) {
+            return;
+        }
+
+        if (exhausted) {
+            parked.increment();
+            logger.error("Parked submission event {} after {} attempts", submission.eventId, attempts, cause);
+        } else {
+            failed.increment();
+            logger.warn("Submission event {} failed on attempt {}, retrying in {} ms: {}",
+                    submission.eventId, attempts, delayMs, reason);
+        }
+    }
+
+    private static String describe(RuntimeException ex) {
+        String reason = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getName();
+        return reason.length() > 500 ? reason.substring(0, 500) : reason;
+    }
+
+    private void updateUserLevel(User user) {
+        Long points = user.getPoints();
+        int newLevel = calculateLevel(points);
+
+        if (newLevel > user.getLevel()) {
+            user.setLevel(newLevel);
+            userRepository.save(user);
+
+            // Award level up bonus
+            pointsService.awardPoints(user, 100L, "level_up",
+                "Level up bonus - reached level " + newLevel);
+        }
+    }
+
+    private int calculateLevel(Long points) {
+        // Level calculation: Level = floor(sqrt(points / 100)) + 1
+        return (int) Math.floor(Math.sqrt(points / 100.0)) + 1;
+    }
+
+    private int queued() {
+        int queued = 0;
+        for (ThreadPoolExecutor worker : workers) {
+            queued += worker.getQueue().size();
+        }
+        return queued;
+    }
+
+    private Counter pipelineCounter(String result) {
+        return Counter.builder("submission.pipeline.events")
+                .description("Quiz submission events handled by the pipeline")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
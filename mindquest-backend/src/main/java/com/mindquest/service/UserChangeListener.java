@@ -0,0 +1,26 @@
+package com.mindquest.service;
+
+import com.mindquest.entity.User;
+import com.mindquest.security.TokenVersionCache;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UserChangeListener {
+
+    // Lazy so Hibernate can build this listener before the repositories exist
+    @Autowired
+    @Lazy
+    private TokenVersionCache tokenVersionCache;
+
+    @PostPersist
+    @PostUpdate
+    public void onUserSaved(User user) {
+        Long userId = user.getId();
+        long tokenVersion = user.getTokenVersion() != null ? user.getTokenVersion() : 0L;
+        AfterCommit.run(() -> tokenVersionCache.update(userId, tokenVersion));
+    }
+}
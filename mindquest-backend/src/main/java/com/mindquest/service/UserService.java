@@ -29,6 +29,9 @@ public class UserService {
     @Autowired
     private QuizAttemptRepository quizAttemptRepository;
 
+    @Autowired
+    private LeaderboardService leaderboardService;
+
     @Value("${app.upload-dir}")
     private String uploadDir;
 
@@ -37,6 +40,13 @@ public class UserService {
         User user = userRepository.findById(userPrincipal.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userPrincipal.getId()));
 
+        // Rank lives in the leaderboard and is only written back when it has moved since the last view. While the
+        // leaderboard is still loading getRank returns 0 and the stored rank is returned as it is.
+        Long rank = leaderboardService.getRank(user);
+        if (rank > 0 && !rank.equals(user.getRank())) {
+            user.setRank(rank);
+        }
+
         UserResponse userResponse = new UserResponse(user);
         
         // Add user stats
@@ -0,0 +1,213 @@
+package com.mindquest.service;
+
+import com.mindquest.entity.PointsTransaction;
+import com.mindquest.repository.PointsTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+// Points earned per day, week and month. Each window is a run of consecutive buckets, one RankedSet per
+// bucket, so expiring an old window is dropping its bucket rather than subtracting individual transactions.
+@Component
+public class WindowedLeaderboard {
+
+    private static final Logger logger = LoggerFactory.getLogger(WindowedLeaderboard.class);
+
+    public enum Window {
+        DAILY, WEEKLY, MONTHLY;
+
+        long bucketOf(LocalDate date) {
+            switch (this) {
+                case DAILY:
+                    return date.toEpochDay();
+                case WEEKLY:
+                    // Epoch day 0 was a Thursday, so shifting by 3 starts every bucket on a Monday
+                    return Math.floorDiv(date.toEpochDay() + 3, 7);
+                default:
+                    return date.getYear() * 12L + date.getMonthValue() - 1;
+            }
+        }
+
+        LocalDate startOf(long bucket) {
+            switch (this) {
+                case DAILY:
+                    return LocalDate.ofEpochDay(bucket);
+                case WEEKLY:
+                    return LocalDate.ofEpochDay(bucket * 7 - 3);
+                default:
+                    return LocalDate.of((int) Math.floorDiv(bucket, 12), (int) Math.floorMod(bucket, 12) + 1, 1);
+            }
+        }
+    }
+
+    private static final class EarnedPoints {
+        private final long transactionId;
+        private final long userId;
+        private final long points;
+        private final LocalDateTime earnedAt;
+
+        private EarnedPoints(long transactionId, long userId, long points, LocalDateTime earnedAt) {
+            this.transactionId = transactionId;
+            this.userId = userId;
+            this.points = points;
+            this.earnedAt = earnedAt;
+        }
+    }
+
+    @Autowired
+    private PointsTransactionRepository transactionRepository;
+
+    @Value("${app.leaderboard.retained-windows:2}")
+    private int retainedWindows;
+
+    @Value("${app.leaderboard.late-commit-grace-seconds:300}")
+    private long lateCommitGraceSeconds;
+
+    private final Map<Window, ConcurrentSkipListMap<Long, RankedSet>> buckets = new EnumMap<>(Window.class);
+
+    // Awards committed before the ledger has been streamed wait here. Ids are not handed out in commit
+    // order, so an award with an id at or below the stream's highest id may still have committed after the
+    // stream's snapshot. Only recently created awards can do that, and the stream keeps the ids it saw among
+    // those to tell them apart. All three are published under the pending lock when loaded is set.
+    private final List<EarnedPoints> pending = new ArrayList<>();
+    private boolean loaded;
+    private long watermark;
+    private LocalDateTime recentSince;
+    private Set<Long> recentlyStreamed = Collections.emptySet();
+
+    public WindowedLeaderboard() {
+        for (Window window : Window.values()) {
+            buckets.put(window, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+
+        LocalDate since = today;
+        for (Window window : Window.values()) {
+            LocalDate windowStart = window.startOf(oldestRetained(window, today));
+            if (windowStart.isBefore(since)) {
+                since = windowStart;
+            }
+        }
+
+        // Taken before the stream starts, so anything still uncommitted when it reads was created after this
+        LocalDateTime recent = LocalDateTime.now().minusSeconds(lateCommitGraceSeconds);
+        Long maxId = transactionRepository.findMaxId();
+        long streamedUpTo = maxId != null ? maxId : 0L;
+        Set<Long> recentIds = new HashSet<>();
+        long[] rows = new long[1];
+        try (Stream<Object[]> earned = transactionRepository.streamEarnedSince(since.atStartOfDay(), streamedUpTo)) {
+            earned.forEach(row -> {
+                EarnedPoints earnedPoints =
+                        new EarnedPoints((Long) row[0], (Long) row[1], (Long) row[2], (LocalDateTime) row[3]);
+                apply(earnedPoints);
+                if (!earnedPoints.earnedAt.isBefore(recent)) {
+                    recentIds.add(earnedPoints.transactionId);
+                }
+                rows[0]++;
+            });
+        }
+
+        List<EarnedPoints> queued;
+        synchronized (pending) {
+            watermark = streamedUpTo;
+            recentSince = recent;
+            recentlyStreamed = recentIds;
+            loaded = true;
+            queued = new ArrayList<>(pending);
+            pending.clear();
+        }
+        for (EarnedPoints earnedPoints : queued) {
+            if (!streamed(earnedPoints)) {
+                apply(earnedPoints);
+            }
+        }
+
+        logger.info("Windowed leaderboards loaded {} transactions since {} in {} ms",
+                rows[0], since, System.currentTimeMillis() - start);
+    }
+
+    public void recordEarned(PointsTransaction transaction) {
+        LocalDateTime earnedAt = transaction.getCreatedAt() != null ? transaction.getCreatedAt() : LocalDateTime.now();
+        EarnedPoints earnedPoints = new EarnedPoints(
+                transaction.getId(), transaction.getUser().getId(), transaction.getPoints(), earnedAt);
+        AfterCommit.run(() -> accept(earnedPoints));
+    }
+
+    public RankedSet current(Window window) {
+        long bucket = window.bucketOf(LocalDate.now());
+        ConcurrentSkipListMap<Long, RankedSet> windowBuckets = buckets.get(window);
+        expire(windowBuckets, bucket);
+        return windowBuckets.computeIfAbsent(bucket, key -> new RankedSet());
+    }
+
+    private void accept(EarnedPoints earnedPoints) {
+        synchronized (pending) {
+            if (!loaded) {
+                pending.add(earnedPoints);
+                return;
+            }
+        }
+        if (!streamed(earnedPoints)) {
+            apply(earnedPoints);
+        }
+    }
+
+    // Whether the startup stream already counted this award; only called once loaded is set
+    private boolean streamed(EarnedPoints earnedPoints) {
+        if (earnedPoints.transactionId > watermark) {
+            return false;
+        }
+        return earnedPoints.earnedAt.isBefore(recentSince) || recentlyStreamed.contains(earnedPoints.transactionId);
+    }
+
+    private void apply(EarnedPoints earnedPoints) {
+        LocalDate today = LocalDate.now();
+        LocalDate earnedOn = earnedPoints.earnedAt.toLocalDate();
+        for (Window window : Window.values()) {
+            long bucket = window.bucketOf(earnedOn);
+            ConcurrentSkipListMap<Long, RankedSet> windowBuckets = buckets.get(window);
+            long current = window.bucketOf(today);
+            expire(windowBuckets, current);
+            if (bucket < oldestRetained(window, today) || bucket > current) {
+                continue;
+            }
+            windowBuckets.computeIfAbsent(bucket, key -> new RankedSet())
+                    .increment(earnedPoints.userId, earnedPoints.points, 0);
+        }
+    }
+
+    private void expire(ConcurrentSkipListMap<Long, RankedSet> windowBuckets, long currentBucket) {
+        ConcurrentNavigableMap<Long, RankedSet> expired = windowBuckets.headMap(currentBucket - retainedWindows + 1);
+        if (!expired.isEmpty()) {
+            expired.clear();
+        }
+    }
+
+    private long oldestRetained(Window window, LocalDate today) {
+        return window.bucketOf(today) - retainedWindows + 1;
+    }
+}
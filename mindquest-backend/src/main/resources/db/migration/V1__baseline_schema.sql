@@ -0,0 +1,174 @@
+-- Schema as previously generated by Hibernate from the entity mappings. Databases that were created that
+-- way are baselined at this version and only receive the migrations after it.
+
+CREATE TABLE users (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name            VARCHAR(100) NOT NULL,
+    email           VARCHAR(100) NOT NULL,
+    password        VARCHAR(255),
+    bio             VARCHAR(500),
+    location        VARCHAR(100),
+    website         VARCHAR(255),
+    avatar          VARCHAR(255),
+    role            VARCHAR(20),
+    level           INTEGER,
+    points          BIGINT,
+    rank            BIGINT,
+    provider        VARCHAR(20),
+    status          VARCHAR(20),
+    last_active     TIMESTAMP(6),
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE user_permissions (
+    user_id     BIGINT NOT NULL REFERENCES users (id),
+    permissions VARCHAR(30) NOT NULL,
+    PRIMARY KEY (user_id, permissions)
+);
+
+CREATE TABLE quiz_categories (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title         VARCHAR(100) NOT NULL,
+    description   VARCHAR(500),
+    icon          VARCHAR(10),
+    difficulty    VARCHAR(20),
+    color         VARCHAR(50),
+    bg_color      VARCHAR(50),
+    border_color  VARCHAR(50),
+    is_active     BOOLEAN,
+    created_at    TIMESTAMP(6),
+    updated_at    TIMESTAMP(6)
+);
+
+CREATE TABLE quiz_category_subcategories (
+    quiz_category_id BIGINT NOT NULL REFERENCES quiz_categories (id),
+    subcategories    VARCHAR(255)
+);
+
+CREATE TABLE quiz_category_moderators (
+    quiz_category_id BIGINT NOT NULL REFERENCES quiz_categories (id),
+    moderators       VARCHAR(255)
+);
+
+CREATE TABLE quiz_category_rules (
+    quiz_category_id BIGINT NOT NULL REFERENCES quiz_categories (id),
+    rules            VARCHAR(255)
+);
+
+CREATE TABLE questions (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    question            VARCHAR(1000) NOT NULL,
+    category_id         BIGINT REFERENCES quiz_categories (id),
+    difficulty          VARCHAR(20),
+    correct_answer      INTEGER NOT NULL,
+    explanation         VARCHAR(1000),
+    points              INTEGER,
+    time_limit          INTEGER,
+    created_by          BIGINT REFERENCES users (id),
+    is_active           BOOLEAN,
+    times_used          BIGINT,
+    average_score       DOUBLE PRECISION,
+    correct_percentage  DOUBLE PRECISION,
+    created_at          TIMESTAMP(6),
+    updated_at          TIMESTAMP(6)
+);
+
+CREATE TABLE question_options (
+    question_id   BIGINT NOT NULL REFERENCES questions (id),
+    options       VARCHAR(255),
+    options_order INTEGER NOT NULL,
+    PRIMARY KEY (question_id, options_order)
+);
+
+CREATE TABLE question_tags (
+    question_id BIGINT NOT NULL REFERENCES questions (id),
+    tags        VARCHAR(255)
+);
+
+CREATE TABLE quiz_attempts (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id          BIGINT REFERENCES users (id),
+    category_id      BIGINT REFERENCES quiz_categories (id),
+    score            INTEGER,
+    points           BIGINT,
+    correct_answers  INTEGER,
+    total_questions  INTEGER,
+    time_spent       INTEGER,
+    bonus_points     BIGINT,
+    time_bonus       BIGINT,
+    perfect_bonus    BIGINT,
+    total_points     BIGINT,
+    started_at       TIMESTAMP(6),
+    completed_at     TIMESTAMP(6),
+    created_at       TIMESTAMP(6)
+);
+
+CREATE TABLE quiz_answers (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    attempt_id      BIGINT REFERENCES quiz_attempts (id),
+    question_id     BIGINT REFERENCES questions (id),
+    selected_answer INTEGER,
+    correct         BOOLEAN,
+    time_spent      INTEGER,
+    points          INTEGER
+);
+
+CREATE TABLE points_transactions (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id     BIGINT REFERENCES users (id),
+    type        VARCHAR(20),
+    points      BIGINT,
+    source      VARCHAR(100) NOT NULL,
+    description VARCHAR(500),
+    metadata    TEXT,
+    created_at  TIMESTAMP(6)
+);
+
+CREATE TABLE crypto_rewards (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name         VARCHAR(50) NOT NULL,
+    icon         VARCHAR(10),
+    min_points   BIGINT,
+    value        VARCHAR(20),
+    color        VARCHAR(100),
+    available    BOOLEAN,
+    description  VARCHAR(500),
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6)
+);
+
+CREATE TABLE reward_redemptions (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id             BIGINT REFERENCES users (id),
+    reward_id           BIGINT REFERENCES crypto_rewards (id),
+    points_used         BIGINT,
+    value               VARCHAR(20),
+    status              VARCHAR(20),
+    wallet_address      VARCHAR(255) NOT NULL,
+    transaction_id      VARCHAR(255),
+    estimated_delivery  TIMESTAMP(6),
+    completed_at        TIMESTAMP(6),
+    created_at          TIMESTAMP(6),
+    updated_at          TIMESTAMP(6)
+);
+
+CREATE TABLE community_posts (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title       VARCHAR(200) NOT NULL,
+    content     VARCHAR(5000) NOT NULL,
+    author_id   BIGINT REFERENCES users (id),
+    category_id BIGINT REFERENCES quiz_categories (id),
+    likes       BIGINT,
+    replies     BIGINT,
+    views       BIGINT,
+    is_pinned   BOOLEAN,
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6)
+);
+
+CREATE TABLE community_post_tags (
+    community_post_id BIGINT NOT NULL REFERENCES community_posts (id),
+    tags              VARCHAR(255)
+);
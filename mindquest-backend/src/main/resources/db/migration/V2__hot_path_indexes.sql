@@ -0,0 +1,43 @@
+-- Indexes for the repository queries on the request path. IF NOT EXISTS keeps this safe on databases
+-- that were baselined after Hibernate had already created some of them.
+
+-- QuizAttemptRepository.findByUserAndCategory
+CREATE INDEX IF NOT EXISTS idx_quiz_attempts_user_category ON quiz_attempts (user_id, category_id);
+
+-- QuizAttemptRepository.streamScoresByCategoryId, answered from the index alone
+CREATE INDEX IF NOT EXISTS idx_quiz_attempts_category_scores
+    ON quiz_attempts (category_id) INCLUDE (user_id, score, time_spent);
+
+-- QuizAttemptRepository.countQuizzesToday
+CREATE INDEX IF NOT EXISTS idx_quiz_attempts_created ON quiz_attempts (created_at);
+
+-- Loading an attempt's answers
+CREATE INDEX IF NOT EXISTS idx_quiz_answers_attempt ON quiz_answers (attempt_id);
+
+-- PointsTransactionRepository.findByUserWithFilters and findByUserWithFiltersBefore use
+-- idx_points_transactions_user_created (V5). streamEarnedSince only reads earned rows.
+CREATE INDEX IF NOT EXISTS idx_points_transactions_earned_created
+    ON points_transactions (created_at, id) INCLUDE (user_id, points) WHERE type = 'EARNED';
+
+-- PointsLedgerReconciler sums each user's ledger by type
+CREATE INDEX IF NOT EXISTS idx_points_transactions_user_type
+    ON points_transactions (user_id, type) INCLUDE (points);
+
+-- CommunityPostRepository.findByAuthor
+CREATE INDEX IF NOT EXISTS idx_community_posts_author_created ON community_posts (author_id, created_at);
+
+-- QuestionRepository.findActiveIdsByCategoryId and findQuestionsWithFilters
+CREATE INDEX IF NOT EXISTS idx_questions_category_active ON questions (category_id) INCLUDE (id) WHERE is_active;
+
+-- UserRepository.findTopUsersByPoints
+CREATE INDEX IF NOT EXISTS idx_users_points ON users (points DESC);
+
+-- UserRepository.countNewUsersToday
+CREATE INDEX IF NOT EXISTS idx_users_created ON users (created_at);
+
+-- Element collections are always fetched by owner
+CREATE INDEX IF NOT EXISTS idx_quiz_category_subcategories_owner ON quiz_category_subcategories (quiz_category_id);
+CREATE INDEX IF NOT EXISTS idx_quiz_category_moderators_owner ON quiz_category_moderators (quiz_category_id);
+CREATE INDEX IF NOT EXISTS idx_quiz_category_rules_owner ON quiz_category_rules (quiz_category_id);
+CREATE INDEX IF NOT EXISTS idx_question_tags_owner ON question_tags (question_id);
+CREATE INDEX IF NOT EXISTS idx_community_post_tags_owner ON community_post_tags (community_post_id);
@@ -0,0 +1,16 @@
+-- A user takes each category once. Submissions that raced past the application check are removed,
+-- keeping the first attempt, before the constraint is added.
+DELETE FROM quiz_answers WHERE attempt_id IN (
+    SELECT id FROM quiz_attempts a
+    WHERE EXISTS (SELECT 1 FROM quiz_attempts b
+                  WHERE b.user_id = a.user_id AND b.category_id = a.category_id AND b.id < a.id));
+
+DELETE FROM quiz_attempts a
+WHERE EXISTS (SELECT 1 FROM quiz_attempts b
+              WHERE b.user_id = a.user_id AND b.category_id = a.category_id AND b.id < a.id);
+
+-- The constraint's own index replaces the plain one from V2
+DROP INDEX IF EXISTS idx_quiz_attempts_user_category;
+
+ALTER TABLE quiz_attempts
+    ADD CONSTRAINT uk_quiz_attempts_user_category UNIQUE (user_id, category_id);
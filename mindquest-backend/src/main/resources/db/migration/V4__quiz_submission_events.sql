@@ -0,0 +1,20 @@
+-- Outbox for work that follows a quiz submission (points and level-ups), applied by SubmissionPipeline
+CREATE SEQUENCE quiz_submission_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE quiz_submission_events (
+    id            BIGINT PRIMARY KEY,
+    attempt_id    BIGINT NOT NULL,
+    user_id       BIGINT NOT NULL,
+    points        BIGINT NOT NULL,
+    description   VARCHAR(500),
+    created_at    TIMESTAMP(6),
+    processed_at  TIMESTAMP(6),
+    CONSTRAINT uk_quiz_submission_events_attempt UNIQUE (attempt_id)
+);
+
+-- Only unprocessed rows are polled, so the index stays as small as the backlog
+CREATE INDEX idx_quiz_submission_events_pending ON quiz_submission_events (id) INCLUDE (created_at)
+    WHERE processed_at IS NULL;
+
+-- Retention sweep of processed rows
+CREATE INDEX idx_quiz_submission_events_processed ON quiz_submission_events (processed_at);
@@ -0,0 +1,41 @@
+-- Columns, constraints and indexes the entities gained after the V1 baseline. Databases created by an
+-- earlier release have none of them; IF NOT EXISTS keeps this safe where ddl-auto had already added some.
+
+-- Tokens carry this version and stop being trusted once it is bumped
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version BIGINT;
+UPDATE users SET token_version = 0 WHERE token_version IS NULL;
+
+-- Lifetime totals materialized from points_transactions; PointsLedgerReconciler keeps them in step afterwards
+ALTER TABLE users ADD COLUMN IF NOT EXISTS total_earned BIGINT;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS total_redeemed BIGINT;
+UPDATE users u SET
+    total_earned = COALESCE((SELECT SUM(t.points) FROM points_transactions t
+                             WHERE t.user_id = u.id AND t.type = 'EARNED'), 0),
+    total_redeemed = COALESCE((SELECT SUM(t.points) FROM points_transactions t
+                               WHERE t.user_id = u.id AND t.type = 'REDEEMED'), 0)
+WHERE u.total_earned IS NULL OR u.total_redeemed IS NULL;
+
+-- Idempotent redemption requests and RedemptionSettlementWorker bookkeeping
+ALTER TABLE reward_redemptions ADD COLUMN IF NOT EXISTS idempotency_key VARCHAR(100);
+ALTER TABLE reward_redemptions ADD COLUMN IF NOT EXISTS attempts INTEGER;
+ALTER TABLE reward_redemptions ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP(6);
+ALTER TABLE reward_redemptions ADD COLUMN IF NOT EXISTS claimed_at TIMESTAMP(6);
+ALTER TABLE reward_redemptions ADD COLUMN IF NOT EXISTS failure_reason VARCHAR(500);
+UPDATE reward_redemptions SET attempts = 0 WHERE attempts IS NULL;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_reward_redemptions_user_idempotency_key') THEN
+        ALTER TABLE reward_redemptions
+            ADD CONSTRAINT uk_reward_redemptions_user_idempotency_key UNIQUE (user_id, idempotency_key);
+    END IF;
+END $$;
+
+-- Keyset pagination of each owner's history, newest first
+CREATE INDEX IF NOT EXISTS idx_quiz_attempts_user_created ON quiz_attempts (user_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_points_transactions_user_created ON points_transactions (user_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_reward_redemptions_user_created ON reward_redemptions (user_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_community_posts_category_created ON community_posts (category_id, created_at, id);
+
+-- RedemptionSettlementWorker claims due rows by status
+CREATE INDEX IF NOT EXISTS idx_reward_redemptions_status_next_attempt ON reward_redemptions (status, next_attempt_at);
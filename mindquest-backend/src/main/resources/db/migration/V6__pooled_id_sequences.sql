@@ -0,0 +1,39 @@
+-- Ids move from identity columns to pooled sequences (allocationSize 50 in the entities). Each sequence is
+-- moved past the ids already in its table: with is_called set, the next block Hibernate draws starts at
+-- MAX(id) + 1. Empty tables keep the sequence at its start.
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('users_seq', MAX(id)) FROM users HAVING MAX(id) IS NOT NULL;
+
+ALTER TABLE quiz_categories ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS quiz_categories_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('quiz_categories_seq', MAX(id)) FROM quiz_categories HAVING MAX(id) IS NOT NULL;
+
+ALTER TABLE questions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS questions_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('questions_seq', MAX(id)) FROM questions HAVING MAX(id) IS NOT NULL;
+
+ALTER TABLE quiz_attempts ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS quiz_attempts_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('quiz_attempts_seq', MAX(id)) FROM quiz_attempts HAVING MAX(id) IS NOT NULL;
+
+ALTER TABLE quiz_answers ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS quiz_answers_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('quiz_answers_seq', MAX(id)) FROM quiz_answers HAVING MAX(id) IS NOT NULL;
+
+ALTER TABLE points_transactions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS points_transactions_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('points_transactions_seq', MAX(id)) FROM points_transactions HAVING MAX(id) IS NOT NULL;
+
+ALTER TABLE crypto_rewards ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS crypto_rewards_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('crypto_rewards_seq', MAX(id)) FROM crypto_rewards HAVING MAX(id) IS NOT NULL;
+
+ALTER TABLE reward_redemptions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS reward_redemptions_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('reward_redemptions_seq', MAX(id)) FROM reward_redemptions HAVING MAX(id) IS NOT NULL;
+
+ALTER TABLE community_posts ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS community_posts_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('community_posts_seq', MAX(id)) FROM community_posts HAVING MAX(id) IS NOT NULL;
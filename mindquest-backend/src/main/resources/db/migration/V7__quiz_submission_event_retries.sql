@@ -0,0 +1,14 @@
+-- Retry bookkeeping for the submission outbox. Failed events are retried with backoff and parked once
+-- they have used up their attempts, so a poison row stops being polled.
+ALTER TABLE quiz_submission_events ADD COLUMN attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE quiz_submission_events ADD COLUMN next_attempt_at TIMESTAMP(6);
+ALTER TABLE quiz_submission_events ADD COLUMN parked_at TIMESTAMP(6);
+ALTER TABLE quiz_submission_events ADD COLUMN failure_reason VARCHAR(500);
+
+-- Parked events leave the polled index along with processed ones
+DROP INDEX idx_quiz_submission_events_pending;
+CREATE INDEX idx_quiz_submission_events_pending ON quiz_submission_events (id) INCLUDE (created_at, next_attempt_at)
+    WHERE processed_at IS NULL AND parked_at IS NULL;
+
+-- Parked events, for whoever investigates and replays them
+CREATE INDEX idx_quiz_submission_events_parked ON quiz_submission_events (parked_at) WHERE parked_at IS NOT NULL;
@@ -0,0 +1,2 @@
+-- Hash of the request that claimed an idempotency key; a replay with different details is rejected
+ALTER TABLE reward_redemptions ADD COLUMN request_fingerprint VARCHAR(64);
@@ -0,0 +1,83 @@
+package com.mindquest;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Single-threaded throughput and allocation measurement for the *Benchmark classes, which only run under the
+// "benchmarks" Maven profile. Each operation's result is folded into a sink so the JIT can't discard the work.
+// Numbers are per core: everything runs on the calling thread.
+public final class Microbenchmark {
+
+    private static final long WARMUP_MS = Long.getLong("benchmark.warmup-ms", 2000);
+    private static final long MEASURE_MS = Long.getLong("benchmark.measure-ms", 3000);
+
+    // Operations between clock reads, so reading the clock doesn't dominate very short operations
+    private static final int DEFAULT_BATCH = 64;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile long sink;
+
+    public static final class Result {
+        private final String name;
+        private final double opsPerSecond;
+        private final double bytesPerOp;
+
+        private Result(String name, double opsPerSecond, double bytesPerOp) {
+            this.name = name;
+            this.opsPerSecond = opsPerSecond;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        public double getOpsPerSecond() {
+            return opsPerSecond;
+        }
+
+        public double getBytesPerOp() {
+            return bytesPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-56s %,16.0f ops/s %,12.1f B/op", name, opsPerSecond, bytesPerOp);
+        }
+    }
+
+    private Microbenchmark() {}
+
+    public static Result run(String name, LongSupplier operation) {
+        return run(name, DEFAULT_BATCH, operation);
+    }
+
+    // Slow operations, such as database round-trips, should use a batch of 1
+    public static Result run(String name, int batch, LongSupplier operation) {
+        loop(operation, batch, WARMUP_MS);
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long operations = loop(operation, batch, MEASURE_MS);
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        Result result = new Result(name, operations * 1e9 / elapsed, (double) allocated / operations);
+        System.out.println(result);
+        return result;
+    }
+
+    private static long loop(LongSupplier operation, int batch, long durationMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMs);
+        long operations = 0;
+        long accumulated = 0;
+        do {
+            for (int i = 0; i < batch; i++) {
+                accumulated += operation.getAsLong();
+            }
+            operations += batch;
+        } while (System.nanoTime() - deadline < 0);
+        sink = accumulated;
+        return operations;
+    }
+}
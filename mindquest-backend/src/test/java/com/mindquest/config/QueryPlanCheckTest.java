@@ -0,0 +1,218 @@
+package com.mindquest.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Run with mvn test -Pquery-plan-check against a Postgres that Flyway has migrated (the default datasource,
+// not the H2 test profile). Explains the SQL behind every repository query and fails if any of them still
+// needs a sequential scan, or, for keyset pages, if the cursor does not bound the index range. Sequential
+// scans are disabled for the check, because on a small table the planner prefers them even when a usable
+// index exists. A query added to a repository fails the check until it is listed here or exempted.
+@SpringBootTest
+@EnabledIfSystemProperty(named = "query-plan-check", matches = "true")
+class QueryPlanCheckTest {
+
+    private static final Map<String, String> QUERIES = new LinkedHashMap<>();
+
+    // Keyset pages must also start their index range at the cursor, not filter their way down from the newest row
+    private static final Map<String, String> SEEK_QUERIES = new LinkedHashMap<>();
+
+    // Queries that read a whole table on purpose, with the reason
+    private static final Map<String, String> EXEMPT = new LinkedHashMap<>();
+
+    static {
+        QUERIES.put("UserRepository.findByEmail",
+                "SELECT * FROM users WHERE email = 'admin@mindquest.com'");
+        QUERIES.put("UserRepository.existsByEmail",
+                "SELECT id FROM users WHERE email = 'admin@mindquest.com' LIMIT 1");
+        QUERIES.put("UserRepository.findTokenVersionById",
+                "SELECT COALESCE(token_version, 0) FROM users WHERE id = 1");
+        QUERIES.put("UserRepository.countNewUsersToday",
+                "SELECT COUNT(*) FROM users WHERE created_at >= current_date");
+        QUERIES.put("UserRepository.addPoints",
+                "UPDATE users SET points = points + 10, total_earned = COALESCE(total_earned, 0) + 10 WHERE id = 1");
+        QUERIES.put("UserRepository.deductPoints",
+                "UPDATE users SET points = points - 10, total_redeemed = COALESCE(total_redeemed, 0) + 10 " +
+                "WHERE id = 1 AND points >= 10");
+        QUERIES.put("UserRepository.refundPoints",
+                "UPDATE users SET points = points + 10, total_redeemed = COALESCE(total_redeemed, 0) - 10 WHERE id = 1");
+        QUERIES.put("UserRepository.findPointsById",
+                "SELECT points FROM users WHERE id = 1");
+        QUERIES.put("UserRepository.findTopUsersByPoints",
+                "SELECT * FROM users ORDER BY points DESC LIMIT 10");
+        QUERIES.put("QuizAttemptRepository.findByUserOrderByCreatedAtDesc",
+                "SELECT * FROM quiz_attempts WHERE user_id = 1 ORDER BY created_at DESC LIMIT 20");
+        QUERIES.put("QuizAttemptRepository.findByUserWithFilters",
+                "SELECT * FROM quiz_attempts WHERE user_id = 1 AND category_id = 1 ORDER BY created_at DESC LIMIT 20");
+        QUERIES.put("QuizAttemptRepository.existsByUserIdAndCategoryId",
+                "SELECT id FROM quiz_attempts WHERE user_id = 1 AND category_id = 1 LIMIT 1");
+        QUERIES.put("QuizAttemptRepository.findCategoryIdsByUserId",
+                "SELECT category_id FROM quiz_attempts WHERE user_id = 1");
+        QUERIES.put("QuizAttemptRepository.streamScoresByCategoryId",
+                "SELECT user_id, score, time_spent FROM quiz_attempts WHERE category_id = 1");
+        QUERIES.put("QuizAttemptRepository.countQuizzesToday",
+                "SELECT COUNT(*) FROM quiz_attempts WHERE created_at >= current_date AND created_at < current_date + 1");
+        QUERIES.put("QuizAttemptRepository.countByUser",
+                "SELECT COUNT(*) FROM quiz_attempts WHERE user_id = 1");
+        QUERIES.put("QuizAttemptRepository.getAverageScoreByUser",
+                "SELECT AVG(score) FROM quiz_attempts WHERE user_id = 1");
+        QUERIES.put("QuizAttemptRepository.getTotalTimeSpentByUser",
+                "SELECT SUM(time_spent) FROM quiz_attempts WHERE user_id = 1");
+        QUERIES.put("QuizAttempt.answers",
+                "SELECT * FROM quiz_answers WHERE attempt_id = 1");
+        QUERIES.put("PointsTransactionRepository.findByUserWithFilters",
+                "SELECT * FROM points_transactions WHERE user_id = 1 ORDER BY created_at DESC LIMIT 20");
+        QUERIES.put("PointsTransactionRepository.findRecentByUser",
+                "SELECT * FROM points_transactions WHERE user_id = 1 ORDER BY created_at DESC LIMIT 10");
+        QUERIES.put("PointsTransactionRepository.findMaxId",
+                "SELECT MAX(id) FROM points_transactions");
+        QUERIES.put("PointsTransactionRepository.streamEarnedSince",
+                "SELECT id, user_id, points, created_at FROM points_transactions " +
+                "WHERE type = 'EARNED' AND created_at >= now() - interval '62 days' AND id <= 1000");
+        QUERIES.put("CommunityPostRepository.findByCategoryWithSort",
+                "SELECT * FROM community_posts WHERE category_id = 1 ORDER BY likes DESC LIMIT 20");
+        QUERIES.put("CommunityPostRepository.incrementViews",
+                "UPDATE community_posts SET views = views + 1 WHERE id = 1");
+        QUERIES.put("CommunityPostRepository.findByAuthor",
+                "SELECT * FROM community_posts WHERE author_id = 1 ORDER BY created_at DESC LIMIT 20");
+        QUERIES.put("QuestionRepository.findActiveIdsByCategoryId",
+                "SELECT id FROM questions WHERE is_active = true AND category_id = 1");
+        QUERIES.put("QuestionRepository.findAnswerKeysByIdIn",
+                "SELECT id, correct_answer, points, time_limit FROM questions WHERE id IN (1, 2, 3)");
+        QUERIES.put("QuestionRepository.findAllWithOptionsByIdIn",
+                "SELECT * FROM questions WHERE id IN (1, 2, 3)");
+        QUERIES.put("QuestionRepository.findQuestionsWithFilters",
+                "SELECT * FROM questions WHERE category_id = 1 AND is_active = true LIMIT 20");
+        QUERIES.put("Question.options",
+                "SELECT * FROM question_options WHERE question_id IN (1, 2, 3)");
+        QUERIES.put("QuizCategory.subcategories",
+                "SELECT * FROM quiz_category_subcategories WHERE quiz_category_id IN (1, 2, 3)");
+        QUERIES.put("QuizCategory.moderators",
+                "SELECT * FROM quiz_category_moderators WHERE quiz_category_id IN (1, 2, 3)");
+        QUERIES.put("QuizCategory.rules",
+                "SELECT * FROM quiz_category_rules WHERE quiz_category_id IN (1, 2, 3)");
+        QUERIES.put("RewardRedemptionRepository.findByUserOrderByCreatedAtDesc",
+                "SELECT * FROM reward_redemptions WHERE user_id = 1 ORDER BY created_at DESC LIMIT 20");
+        QUERIES.put("RewardRedemptionRepository.findByUserIdAndIdempotencyKey",
+                "SELECT * FROM reward_redemptions WHERE user_id = 1 AND idempotency_key = 'key'");
+        QUERIES.put("RewardRedemptionRepository.findByStatus",
+                "SELECT * FROM reward_redemptions WHERE status = 'PENDING' LIMIT 20");
+        QUERIES.put("RedemptionSettlementWorker.claim",
+                "SELECT id FROM reward_redemptions WHERE status = 'PENDING' AND next_attempt_at <= now()");
+        QUERIES.put("QuizSubmissionEventRepository.findPending",
+                "SELECT * FROM quiz_submission_events WHERE processed_at IS NULL AND parked_at IS NULL AND " +
+                "created_at < LOCALTIMESTAMP AND (next_attempt_at IS NULL OR next_attempt_at <= LOCALTIMESTAMP) " +
+                "ORDER BY id LIMIT 500");
+        QUERIES.put("QuizSubmissionEventRepository.findOldestPendingCreatedAt",
+                "SELECT MIN(created_at) FROM quiz_submission_events WHERE processed_at IS NULL AND parked_at IS NULL");
+        QUERIES.put("QuizSubmissionEventRepository.markProcessed",
+                "UPDATE quiz_submission_events SET processed_at = LOCALTIMESTAMP WHERE id = 1 AND processed_at IS NULL");
+        QUERIES.put("QuizSubmissionEventRepository.recordFailure",
+                "UPDATE quiz_submission_events SET attempts = attempts + 1 " +
+                "WHERE id = 1 AND processed_at IS NULL AND attempts = 0");
+        QUERIES.put("QuizSubmissionEventRepository.deleteProcessedBefore",
+                "DELETE FROM quiz_submission_events WHERE processed_at < LOCALTIMESTAMP - interval '7 days'");
+
+        SEEK_QUERIES.put("QuizAttemptRepository.findByUserWithFiltersBefore",
+                "SELECT * FROM quiz_attempts WHERE user_id = 1 AND category_id = 1 AND " +
+                "created_at <= LOCALTIMESTAMP AND (created_at < LOCALTIMESTAMP OR id < 1) " +
+                "ORDER BY created_at DESC, id DESC LIMIT 21");
+        SEEK_QUERIES.put("PointsTransactionRepository.findByUserWithFiltersBefore",
+                "SELECT * FROM points_transactions WHERE user_id = 1 AND " +
+                "created_at <= LOCALTIMESTAMP AND (created_at < LOCALTIMESTAMP OR id < 1) " +
+                "ORDER BY created_at DESC, id DESC LIMIT 21");
+        SEEK_QUERIES.put("CommunityPostRepository.findByCategoryBefore",
+                "SELECT * FROM community_posts WHERE category_id = 1 AND " +
+                "created_at <= LOCALTIMESTAMP AND (created_at < LOCALTIMESTAMP OR id < 1) " +
+                "ORDER BY created_at DESC, id DESC LIMIT 21");
+        SEEK_QUERIES.put("RewardRedemptionRepository.findByUserBefore",
+                "SELECT * FROM reward_redemptions WHERE user_id = 1 AND " +
+                "created_at <= LOCALTIMESTAMP AND (created_at < LOCALTIMESTAMP OR id < 1) " +
+                "ORDER BY created_at DESC, id DESC LIMIT 21");
+
+        EXEMPT.put("UserRepository.findUsersWithFilters", "admin search on a substring, no btree can serve it");
+        EXEMPT.put("UserRepository.countActiveUsers", "community stats, counts most of the table");
+        EXEMPT.put("UserRepository.streamPoints", "leaderboard rebuild reads every user");
+        EXEMPT.put("QuizAttemptRepository.getAverageScore", "site-wide average over the whole table");
+        EXEMPT.put("QuestionRepository.countGroupedByCategory", "CategoryCountIndex refresh reads every row");
+        EXEMPT.put("QuestionRepository.countActiveQuestions", "site-wide count of most of the table");
+        EXEMPT.put("CommunityPostRepository.countGroupedByCategory", "CategoryCountIndex refresh reads every row");
+        EXEMPT.put("CommunityPostRepository.countAllPosts", "community stats, counts the whole table");
+        EXEMPT.put("QuizCategoryRepository.findActiveCategoriesWithFilters", "small catalog table, query cached");
+        EXEMPT.put("QuizCategoryRepository.findActiveCategories", "small catalog table");
+        EXEMPT.put("CryptoRewardRepository.findAvailableRewards", "small catalog table, entities cached");
+    }
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void everyRepositoryQueryIsChecked() {
+        Repositories repositories = new Repositories(applicationContext);
+        TreeSet<String> unchecked = new TreeSet<>();
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRepositoryInformationFor(domainType).orElseThrow();
+            String repository = information.getRepositoryInterface().getSimpleName();
+            information.getQueryMethods().forEach(method -> {
+                String name = repository + "." + method.getName();
+                if (!QUERIES.containsKey(name) && !SEEK_QUERIES.containsKey(name) && !EXEMPT.containsKey(name)) {
+                    unchecked.add(name);
+                }
+            });
+        }
+
+        assertThat(unchecked)
+                .as("Repository queries with no plan check; add them to QUERIES, SEEK_QUERIES or EXEMPT")
+                .isEmpty();
+    }
+
+    @Test
+    void queriesUseTheirIndexes() {
+        List<String> failures = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            List<String> badPlans = new ArrayList<>();
+            QUERIES.forEach((name, sql) -> {
+                List<String> plan = explain(sql);
+                if (plan.stream().anyMatch(line -> line.contains("Seq Scan"))) {
+                    badPlans.add(name + " uses a sequential scan:\n  " + String.join("\n  ", plan));
+                }
+            });
+            SEEK_QUERIES.forEach((name, sql) -> {
+                List<String> plan = explain(sql);
+                if (plan.stream().noneMatch(line -> line.contains("Index Cond") && line.contains("created_at"))) {
+                    badPlans.add(name + " does not bound created_at in its index condition:\n  "
+                            + String.join("\n  ", plan));
+                }
+            });
+            status.setRollbackOnly();
+            return badPlans;
+        });
+
+        assertThat(failures).as("Queries with a bad plan").isEmpty();
+    }
+
+    private List<String> explain(String sql) {
+        return jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+    }
+}
@@ -0,0 +1,67 @@
+package com.mindquest.security;
+
+import com.mindquest.Microbenchmark;
+import com.mindquest.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.EnumSet;
+
+// Per-request token handling in the filter: the old path built a key and parser per call and parsed each token
+// twice, the current one parses once with a shared parser and skips the HMAC for tokens it has already verified
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "benchmarkSecret1234567890123456789012345678901234567890";
+    private static final int TOKENS = 1024;
+
+    @Test
+    void authenticateRequest() {
+        String[] tokens = new String[TOKENS];
+        JwtTokenProvider issuer = provider(TOKENS);
+        for (int i = 0; i < TOKENS; i++) {
+            UserPrincipal principal = new UserPrincipal((long) i + 1, "User " + i, "user" + i + "@mindquest.test",
+                    null, User.Role.USER, EnumSet.noneOf(User.Permission.class), 0L);
+            tokens[i] = issuer.generateToken(new UsernamePasswordAuthenticationToken(principal, null));
+        }
+
+        int[] next = new int[1];
+        Microbenchmark.run("key + parser per call, parsed twice", () -> {
+            String token = tokens[next[0]++ & (TOKENS - 1)];
+            SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+            SecretKey keyAgain = Keys.hmacShaKeyFor(SECRET.getBytes());
+            Claims claims = Jwts.parserBuilder().setSigningKey(keyAgain).build().parseClaimsJws(token).getBody();
+            return Long.parseLong(claims.getSubject());
+        });
+
+        // A one-entry cache that every new token evicts, so each parse verifies the signature
+        JwtTokenProvider uncached = provider(1);
+        Microbenchmark.run("shared parser, single parse, signature checked", () -> {
+            Claims claims = uncached.parse(tokens[next[0]++ & (TOKENS - 1)]);
+            return uncached.getPrincipal(claims).getId();
+        });
+
+        JwtTokenProvider cached = provider(TOKENS);
+        Microbenchmark.run("shared parser, single parse, recently verified", () -> {
+            Claims claims = cached.parse(tokens[next[0]++ & (TOKENS - 1)]);
+            return cached.getPrincipal(claims).getId();
+        });
+    }
+
+    private static JwtTokenProvider provider(int verifiedCacheSize) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 3600000);
+        ReflectionTestUtils.setField(provider, "jwtRefreshExpirationInMs", 604800000);
+        ReflectionTestUtils.setField(provider, "verifiedCacheSize", verifiedCacheSize);
+        provider.init();
+        return provider;
+    }
+}
@@ -0,0 +1,78 @@
+package com.mindquest.service;
+
+import com.mindquest.Microbenchmark;
+import com.mindquest.repository.QuestionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Grades per second per core from a warm answer-key cache. The per-answer lookup and decode are expected not
+// to allocate, and that is asserted; grading a whole submission allocates its key array and answered flags.
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class AnswerKeyCacheBenchmark {
+
+    private static final int QUESTIONS = 10_000;
+    private static final int QUIZ_SIZE = 10;
+
+    @Test
+    void grade() {
+        AnswerKeyCache answerKeyCache = warmCache();
+        long[][] quizzes = new long[1024][QUIZ_SIZE];
+        int[][] selected = new int[quizzes.length][QUIZ_SIZE];
+        for (int q = 0; q < quizzes.length; q++) {
+            for (int i = 0; i < QUIZ_SIZE; i++) {
+                quizzes[q][i] = 1 + (q * 31L + i * 997L) % QUESTIONS;
+                selected[q][i] = i % 4;
+            }
+        }
+        int[] next = new int[1];
+
+        Microbenchmark.Result lookup = Microbenchmark.run("answer lookup + decode", () -> {
+            long packed = answerKeyCache.get(1 + (next[0]++ & 8191));
+            return (next[0] % 4 == AnswerKeyCache.correctAnswer(packed) ? AnswerKeyCache.points(packed) : 0)
+                    + AnswerKeyCache.timeLimit(packed);
+        });
+        assertThat(lookup.getBytesPerOp()).isLessThan(1.0);
+
+        Microbenchmark.run("grade a " + QUIZ_SIZE + "-question submission", () -> {
+            int quiz = next[0]++ & (quizzes.length - 1);
+            long[] servedIds = quizzes[quiz];
+            long[] answerKeys = answerKeyCache.load(servedIds);
+            boolean[] answered = new boolean[servedIds.length];
+            long points = 0;
+            for (int i = 0; i < servedIds.length; i++) {
+                answered[i] = true;
+                if (selected[quiz][i] == AnswerKeyCache.correctAnswer(answerKeys[i])) {
+                    points += AnswerKeyCache.points(answerKeys[i]);
+                }
+            }
+            return answered[0] ? points : -1;
+        });
+    }
+
+    private static AnswerKeyCache warmCache() {
+        List<Object[]> rows = new ArrayList<>();
+        long[] ids = new long[QUESTIONS];
+        for (int i = 0; i < QUESTIONS; i++) {
+            ids[i] = i + 1;
+            rows.add(new Object[] {(long) i + 1, i % 4, 10, 30});
+        }
+        QuestionRepository questionRepository = mock(QuestionRepository.class);
+        when(questionRepository.findAnswerKeysByIdIn(anyCollection())).thenReturn(rows);
+
+        AnswerKeyCache answerKeyCache = new AnswerKeyCache();
+        ReflectionTestUtils.setField(answerKeyCache, "questionRepository", questionRepository);
+        ReflectionTestUtils.setField(answerKeyCache, "maxEntries", 65536);
+        answerKeyCache.init();
+        answerKeyCache.load(ids);
+        return answerKeyCache;
+    }
+}
@@ -0,0 +1,123 @@
+package com.mindquest.service;
+
+import com.mindquest.entity.User;
+import com.mindquest.exception.BadRequestException;
+import com.mindquest.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PointsServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 50;
+    private static final long AWARD = 10;
+    private static final long DEDUCTION = 7;
+
+    @Autowired
+    private PointsService pointsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void createUser() {
+        User user = new User();
+        user.setName("Stress");
+        user.setEmail("stress-" + UUID.randomUUID() + "@mindquest.test");
+        user.setPassword("unused");
+        userId = userRepository.save(user).getId();
+    }
+
+    @Test
+    void concurrentAwardsAndDeductionsKeepTotalsInStepWithTheLedger() throws Exception {
+        AtomicInteger awards = new AtomicInteger();
+        AtomicInteger deductions = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        // Every thread starts together and alternates awards with deductions against the same user row
+        ConcurrentRunner.run(THREADS, thread -> {
+            for (int round = 0; round < ROUNDS; round++) {
+                transactionTemplate.executeWithoutResult(status ->
+                        pointsService.awardPoints(loadUser(), AWARD, "stress", "award"));
+                awards.incrementAndGet();
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            pointsService.deductPoints(loadUser(), DEDUCTION, "stress", "deduction"));
+                    deductions.incrementAndGet();
+                } catch (BadRequestException ex) {
+                    refused.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        User user = userRepository.findById(userId).orElseThrow();
+        long earned = awards.get() * AWARD;
+        long redeemed = deductions.get() * DEDUCTION;
+
+        assertThat(awards.get()).isEqualTo(THREADS * ROUNDS);
+        assertThat(deductions.get() + refused.get()).isEqualTo(THREADS * ROUNDS);
+        assertThat(user.getTotalEarned()).isEqualTo(earned);
+        assertThat(user.getTotalRedeemed()).isEqualTo(redeemed);
+        assertThat(user.getPoints()).isEqualTo(earned - redeemed).isNotNegative();
+        assertThat(ledgerSum("EARNED")).isEqualTo(earned);
+        assertThat(ledgerSum("REDEEMED")).isEqualTo(redeemed);
+    }
+
+    @Test
+    void concurrentDeductionsNeverOverdraw() throws Exception {
+        transactionTemplate.executeWithoutResult(status ->
+                pointsService.awardPoints(loadUser(), 10 * DEDUCTION, "stress", "seed"));
+        AtomicInteger deductions = new AtomicInteger();
+
+        // Far more deductions than the balance covers; exactly ten may succeed
+        ConcurrentRunner.run(THREADS, thread -> {
+            for (int round = 0; round < ROUNDS; round++) {
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            pointsService.deductPoints(loadUser(), DEDUCTION, "stress", "deduction"));
+                    deductions.incrementAndGet();
+                } catch (BadRequestException ex) {
+                    // Expected once the balance runs out
+                }
+            }
+            return null;
+        });
+
+        User user = userRepository.findById(userId).orElseThrow();
+        assertThat(deductions.get()).isEqualTo(10);
+        assertThat(user.getPoints()).isZero();
+        assertThat(user.getTotalRedeemed()).isEqualTo(10 * DEDUCTION);
+        assertThat(ledgerSum("REDEEMED")).isEqualTo(10 * DEDUCTION);
+    }
+
+    private User loadUser() {
+        return userRepository.findById(userId).orElseThrow();
+    }
+
+    private long ledgerSum(String type) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(points), 0) FROM points_transactions WHERE user_id = ? AND type = ?",
+                Long.class, userId, type);
+    }
+}
@@ -0,0 +1,68 @@
+package com.mindquest.service;
+
+import com.mindquest.Microbenchmark;
+import com.mindquest.repository.QuestionRepository;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Deck sampling against the ORDER BY RANDOM() query it replaced, at 1k, 100k and 1M questions in one category.
+// Both sides then fetch the ten picked rows, so each number is the cost of choosing and loading one quiz.
+// The table lives in an in-memory H2, which shows how each approach scales, not absolute Postgres timings.
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class QuestionDeckIndexBenchmark {
+
+    private static final long CATEGORY_ID = 1L;
+    private static final int QUIZ_SIZE = 10;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 100_000, 1_000_000})
+    void sampleQuiz(int questions) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:deck" + questions + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE questions (id BIGINT PRIMARY KEY, category_id BIGINT NOT NULL, " +
+                "is_active BOOLEAN NOT NULL, question VARCHAR(255))");
+        jdbcTemplate.execute("CREATE INDEX idx_questions_category ON questions (category_id)");
+        jdbcTemplate.update("INSERT INTO questions SELECT x, ?, TRUE, CONCAT('Question ', x) FROM SYSTEM_RANGE(1, ?)",
+                CATEGORY_ID, questions);
+
+        try {
+            Microbenchmark.run("ORDER BY RANDOM() LIMIT " + QUIZ_SIZE + ", " + questions + " questions", 1, () ->
+                    jdbcTemplate.queryForList("SELECT id, question FROM questions " +
+                            "WHERE category_id = ? AND is_active = TRUE ORDER BY RANDOM() LIMIT " + QUIZ_SIZE,
+                            CATEGORY_ID).size());
+
+            QuestionDeckIndex deckIndex = deckIndex(questions);
+            Microbenchmark.run("deck sample + load by id, " + questions + " questions", 1, () -> {
+                String ids = deckIndex.sample(CATEGORY_ID, QUIZ_SIZE).stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(","));
+                return jdbcTemplate.queryForList("SELECT id, question FROM questions WHERE id IN (" + ids + ")").size();
+            });
+            Microbenchmark.run("deck sample only, " + questions + " questions", () ->
+                    deckIndex.sample(CATEGORY_ID, QUIZ_SIZE).get(0));
+        } finally {
+            jdbcTemplate.execute("DROP TABLE questions");
+        }
+    }
+
+    private static QuestionDeckIndex deckIndex(int questions) {
+        QuestionRepository questionRepository = mock(QuestionRepository.class);
+        List<Long> ids = LongStream.rangeClosed(1, questions).boxed().collect(Collectors.toList());
+        when(questionRepository.findActiveIdsByCategoryId(CATEGORY_ID)).thenReturn(ids);
+
+        QuestionDeckIndex deckIndex = new QuestionDeckIndex();
+        ReflectionTestUtils.setField(deckIndex, "questionRepository", questionRepository);
+        return deckIndex;
+    }
+}
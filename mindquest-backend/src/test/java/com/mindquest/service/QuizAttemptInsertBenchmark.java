@@ -0,0 +1,95 @@
+package com.mindquest.service;
+
+import com.mindquest.Microbenchmark;
+import com.mindquest.entity.QuizAnswer;
+import com.mindquest.entity.QuizAttempt;
+import com.mindquest.entity.QuizCategory;
+import com.mindquest.entity.User;
+import com.mindquest.repository.QuestionRepository;
+import com.mindquest.repository.QuizAttemptRepository;
+import com.mindquest.repository.QuizCategoryRepository;
+import com.mindquest.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Saving an attempt with its answers the way submitQuiz does, on the H2 test database. Each save is rolled
+// back so the same user and category can be reused. Statements per attempt is the figure that carries over to
+// Postgres: with IDENTITY ids every row was its own insert, eleven per attempt, while pooled sequences let the
+// answers go out as one batch and fetch ids only once every few attempts.
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class QuizAttemptInsertBenchmark {
+
+    private static final int QUIZ_SIZE = 10;
+
+    @Autowired
+    private QuizAttemptRepository attemptRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private QuizCategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void saveAttemptWithAnswers() {
+        User user = new User();
+        user.setName("Inserter");
+        user.setEmail("inserter-" + UUID.randomUUID() + "@mindquest.test");
+        user.setPassword("unused");
+        Long userId = userRepository.save(user).getId();
+
+        QuizCategory category = categoryRepository.findAll().get(0);
+        List<Long> questionIds = questionRepository.findActiveIdsByCategoryId(category.getId());
+        assertThat(questionIds).isNotEmpty();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        AtomicLong attempts = new AtomicLong();
+
+        String name = "attempt + " + QUIZ_SIZE + " answers";
+        Microbenchmark.Result result = Microbenchmark.run(name, 1, () ->
+                transactionTemplate.execute(status -> {
+                    QuizAttempt attempt = new QuizAttempt(userRepository.getReferenceById(userId),
+                            categoryRepository.getReferenceById(category.getId()));
+                    for (int i = 0; i < QUIZ_SIZE; i++) {
+                        attempt.getAnswers().add(new QuizAnswer(attempt,
+                                questionRepository.getReferenceById(questionIds.get(i % questionIds.size())),
+                                i % 4, 5, i % 2 == 0, 10));
+                    }
+                    attemptRepository.saveAndFlush(attempt);
+                    status.setRollbackOnly();
+                    attempts.incrementAndGet();
+                    return attempt.getId();
+                }));
+
+        double statementsPerAttempt = (double) statistics.getPrepareStatementCount() / attempts.get();
+        System.out.printf("%-56s %,16.0f rows/s %,12.2f statements/attempt%n", name,
+                result.getOpsPerSecond() * (QUIZ_SIZE + 1), statementsPerAttempt);
+        assertThat(statementsPerAttempt).isLessThan(QUIZ_SIZE + 1);
+    }
+}
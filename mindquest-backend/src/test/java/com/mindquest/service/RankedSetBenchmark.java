@@ -0,0 +1,33 @@
+package com.mindquest.service;
+
+import com.mindquest.Microbenchmark;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.SplittableRandom;
+
+// The leaderboard's hot operations at 1k, 100k and 1M ranked users: looking up a rank, reading the page
+// around a user, reading the top ten, and moving a user after an award
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class RankedSetBenchmark {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 100_000, 1_000_000})
+    void leaderboardOperations(int users) {
+        SplittableRandom random = new SplittableRandom(42);
+        RankedSet rankedSet = new RankedSet();
+        for (long id = 1; id <= users; id++) {
+            rankedSet.put(id, random.nextLong(1_000_000), id);
+        }
+
+        Microbenchmark.run("rank, " + users + " users", () ->
+                rankedSet.rank(1 + random.nextInt(users)));
+        Microbenchmark.run("around +-5, " + users + " users", () ->
+                rankedSet.around(1 + random.nextInt(users), 5).size());
+        Microbenchmark.run("top 10, " + users + " users", () ->
+                rankedSet.top(10).size());
+        Microbenchmark.run("increment, " + users + " users", () ->
+                rankedSet.increment(1 + random.nextInt(users), 1 + random.nextInt(100), 0));
+    }
+}
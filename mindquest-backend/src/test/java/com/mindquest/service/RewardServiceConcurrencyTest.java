@@ -0,0 +1,124 @@
+package com.mindquest.service;
+
+import com.mindquest.dto.request.RedeemRewardRequest;
+import com.mindquest.dto.response.RedemptionResponse;
+import com.mindquest.entity.CryptoReward;
+import com.mindquest.entity.User;
+import com.mindquest.exception.BadRequestException;
+import com.mindquest.repository.CryptoRewardRepository;
+import com.mindquest.repository.UserRepository;
+import com.mindquest.security.UserPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RewardServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final long COST = 10;
+    private static final long BALANCE = 5 * COST;
+
+    @Autowired
+    private RewardService rewardService;
+
+    @Autowired
+    private PointsService pointsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CryptoRewardRepository rewardRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long rewardId;
+    private Authentication authentication;
+
+    @BeforeEach
+    void createUserAndReward() {
+        User user = new User();
+        user.setName("Redeemer");
+        user.setEmail("redeemer-" + UUID.randomUUID() + "@mindquest.test");
+        user.setPassword("unused");
+        user = userRepository.save(user);
+        userId = user.getId();
+        authentication = new UsernamePasswordAuthenticationToken(UserPrincipal.create(user), null);
+
+        transactionTemplate.executeWithoutResult(status -> pointsService.awardPoints(
+                userRepository.findById(userId).orElseThrow(), BALANCE, "test", "seed"));
+
+        rewardId = rewardRepository.save(new CryptoReward("Test", "T", COST, "1 TST")).getId();
+    }
+
+    @Test
+    void retriesWithTheSameKeyDebitOnce() throws Exception {
+        // Every thread is the same client retrying one request
+        List<String> ids = ConcurrentRunner.run(THREADS,
+                thread -> rewardService.redeemReward(request("same-key"), authentication).getId());
+
+        assertThat(ids).doesNotContainNull().containsOnly(ids.get(0));
+        assertThat(points()).isEqualTo(BALANCE - COST);
+        assertThat(redemptionCount()).isEqualTo(1);
+        assertThat(ledgerSum("REDEEMED")).isEqualTo(COST);
+    }
+
+    @Test
+    void distinctKeysNeverOverdraw() throws Exception {
+        // More distinct redemptions than the balance covers; only BALANCE / COST of them can be paid for
+        List<String> ids = ConcurrentRunner.run(THREADS, thread -> {
+            try {
+                RedemptionResponse response = rewardService.redeemReward(request("key-" + thread), authentication);
+                return response.getId();
+            } catch (BadRequestException ex) {
+                return null;
+            }
+        });
+
+        List<String> redeemed = ids.stream().filter(Objects::nonNull).toList();
+        assertThat(redeemed).hasSize((int) (BALANCE / COST)).doesNotHaveDuplicates();
+        assertThat(points()).isZero();
+        assertThat(redemptionCount()).isEqualTo(BALANCE / COST);
+        assertThat(ledgerSum("REDEEMED")).isEqualTo(BALANCE);
+    }
+
+    private RedeemRewardRequest request(String idempotencyKey) {
+        RedeemRewardRequest request = new RedeemRewardRequest(rewardId, "0xwallet");
+        request.setIdempotencyKey(idempotencyKey);
+        return request;
+    }
+
+    private long points() {
+        return userRepository.findPointsById(userId);
+    }
+
+    private long redemptionCount() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reward_redemptions WHERE user_id = ?", Long.class, userId);
+    }
+
+    private long ledgerSum(String type) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(points), 0) FROM points_transactions WHERE user_id = ? AND type = ?",
+                Long.class, userId, type);
+    }
+}
@@ -0,0 +1,97 @@
+package com.mindquest.service;
+
+import com.mindquest.dto.response.QuizCategoryResponse;
+import com.mindquest.entity.CryptoReward;
+import com.mindquest.entity.User;
+import com.mindquest.repository.CryptoRewardRepository;
+import com.mindquest.repository.UserRepository;
+import com.mindquest.security.UserPrincipal;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Counts the statements the read paths issue once the second-level and query caches are warm
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private RewardService rewardService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CryptoRewardRepository rewardRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void warmCategoryListingIssuesNoStatements() {
+        quizService.getCategories(null, null, 0, 20);
+
+        statistics.clear();
+        Page<QuizCategoryResponse> categories = quizService.getCategories(null, null, 0, 20);
+
+        // The page comes from the query cache, the categories and their collections from the entity caches
+        assertThat(categories.getContent()).isNotEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+        assertThat(statistics.getSecondLevelCacheMissCount()).isZero();
+    }
+
+    @Test
+    void warmRewardListingOnlyReadsTheBalance() {
+        User user = new User();
+        user.setName("Shopper");
+        user.setEmail("shopper-" + UUID.randomUUID() + "@mindquest.test");
+        user.setPassword("unused");
+        user = userRepository.save(user);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(UserPrincipal.create(user), null);
+        rewardService.getAvailableRewards(authentication);
+
+        statistics.clear();
+        rewardService.getAvailableRewards(authentication);
+
+        // The catalog is served from its snapshot; the user's balance is the one statement left
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void warmRewardLookupIsServedFromTheEntityCache() {
+        Long rewardId = rewardRepository.save(new CryptoReward("Cached", "C", 10L, "1 TST")).getId();
+        rewardRepository.findById(rewardId);
+
+        statistics.clear();
+        CryptoReward reward = rewardRepository.findById(rewardId).orElseThrow();
+
+        assertThat(reward.getName()).isEqualTo("Cached");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+    }
+}
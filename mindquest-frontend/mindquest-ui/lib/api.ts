@@ -186,6 +186,7 @@ export interface RewardRedemption {
 // API Client class
 class ApiClient {
   private baseUrl: string;
+  private quizSessions: Record<string, string> = {};
 
   constructor(baseUrl: string = API_BASE_URL) {
     this.baseUrl = baseUrl;
@@ -201,7 +202,8 @@ class ApiClient {
 
   private async request<T>(
     endpoint: string,
-    options: RequestInit = {}
+    options: RequestInit = {},
+    onHeaders?: (headers: Headers) => void
   ): Promise<ApiResponse<T>> {
     const url = `${this.baseUrl}${endpoint}`;
     const headers = this.getAuthHeaders();
@@ -225,6 +227,7 @@ class ApiClient {
         }
       }
 
+      onHeaders?.(response.headers);
       const data = await response.json();
       return data;
     } catch (error) {
@@ -312,12 +315,18 @@ class ApiClient {
   }
 
   async getQuizQuestions(categoryId: string): Promise<ApiResponse<QuizQuestion[]>> {
-    return this.request<QuizQuestion[]>(`/quiz/${categoryId}/questions`);
+    return this.request<QuizQuestion[]>(`/quiz/${categoryId}/questions`, {}, (headers) => {
+      // Signed record of the served questions, required by submitQuiz
+      const session = headers.get('X-Quiz-Session');
+      if (session) this.quizSessions[categoryId] = session;
+    });
   }
 
   async submitQuiz(categoryId: string, submission: QuizSubmission): Promise<ApiResponse<QuizResult>> {
+    const session = this.quizSessions[categoryId];
     return this.request<QuizResult>(`/quiz/${categoryId}/submit`, {
       method: 'POST',
+      headers: session ? { 'X-Quiz-Session': session } : {},
       body: JSON.stringify(submission),
     });
   }